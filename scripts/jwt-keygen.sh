@@ -0,0 +1,31 @@
+#!/usr/bin/env bash
+# Генерирует ключ Ed25519 для подписи JWT и добавляет его в JWK Set файл (security.jwt.keys-location).
+# Файл создается, если его нет. Выводит kid нового ключа, порядок ротации описан в docs/jwt-keys.md.
+#   scripts/jwt-keygen.sh keys/jwks.json
+# Нужен только openssl 1.1.1+.
+set -euo pipefail
+
+file="${1:?usage: $0 <jwks.json>}"
+
+b64url() {
+    base64 -w0 | tr '+/' '-_' | tr -d '='
+}
+
+pem="$(openssl genpkey -algorithm ed25519)"
+# В DER-кодировке ключа Ed25519 сам ключ занимает последние 32 байта
+d="$(openssl pkey -outform DER <<<"$pem" | tail -c 32 | b64url)"
+x="$(openssl pkey -pubout -outform DER <<<"$pem" | tail -c 32 | b64url)"
+# kid: первые 8 символов отпечатка RFC 7638, как у ключей, которые приложение генерирует само
+kid="$(printf '{"crv":"Ed25519","kty":"OKP","x":"%s"}' "$x" | openssl dgst -sha256 -binary | b64url | cut -c1-8)"
+jwk="$(printf '{"kty":"OKP","crv":"Ed25519","kid":"%s","x":"%s","d":"%s"}' "$kid" "$x" "$d")"
+
+umask 077
+if [[ -s "$file" ]]; then
+    # Новый ключ дописывается в конец: подписывать он начнет только после смены JWT_SIGNING_KEY_ID
+    tmp="$(mktemp "$(dirname "$file")/.jwks.XXXXXX")"
+    sed -E "\$s/\][[:space:]]*\}[[:space:]]*\$/,${jwk}]}/" "$file" > "$tmp"
+    mv "$tmp" "$file"
+else
+    printf '{"keys":[%s]}\n' "$jwk" > "$file"
+fi
+echo "$kid"
@@ -0,0 +1,25 @@
+-- Index sizes for plain-text secrets versus their SHA-256 digests (see SecretDigestMigration).
+-- Uses temporary tables only, nothing is left in the database:
+--   psql -d <database> -f scripts/secret-digest-index-size.sql
+CREATE TEMP TABLE token_plain (token varchar(255) UNIQUE);
+CREATE TEMP TABLE token_digest (token_hash bytea UNIQUE);
+CREATE TEMP TABLE code_plain (email varchar(255), verification_code varchar(255));
+CREATE TEMP TABLE code_digest (verification_code_hash bytea UNIQUE);
+
+-- 100k reset tokens (random UUIDs as issued by PasswordService) and six-digit codes of distinct users
+INSERT INTO token_plain SELECT gen_random_uuid()::text FROM generate_series(1, 100000);
+INSERT INTO token_digest SELECT sha256(convert_to(token, 'UTF8')) FROM token_plain;
+INSERT INTO code_plain
+SELECT 'user' || i || '@example.com', lpad((floor(random() * 1000000))::int::text, 6, '0')
+FROM generate_series(1, 100000) i;
+CREATE INDEX code_plain_idx ON code_plain (verification_code);
+INSERT INTO code_digest SELECT sha256(convert_to(email || ':' || verification_code, 'UTF8')) FROM code_plain;
+
+SELECT c.relname AS index_name, pg_size_pretty(pg_relation_size(c.oid)) AS size
+FROM pg_index i
+JOIN pg_class c ON c.oid = i.indexrelid
+JOIN pg_class t ON t.oid = i.indrelid
+WHERE t.relname IN ('token_plain', 'token_digest', 'code_plain', 'code_digest')
+ORDER BY t.relname;
+
+DROP TABLE token_plain, token_digest, code_plain, code_digest;
@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Время старта четырех вариантов запуска из Dockerfile на этой машине, без Docker:
+#   fat jar                 java -jar target/backend-*.jar
+#   extracted               application.jar + lib/ (jarmode=tools extract)
+#   extracted + AOT         то же с -Dspring.aot.enabled=true
+#   extracted + AOT + CDS   то же с архивом AppCDS после тренировочного запуска (профиль training)
+# Каждый вариант запускается RUNS раз. Печатается время из строки "Started BackendApplication in"
+# и время от запуска JVM до первого ответа /actuator/health (любой HTTP-статус: проверка почты
+# без доступа к SMTP-серверу отвечает 503, а приложение к этому моменту уже принимает запросы).
+#
+# Нужны JDK 17, Maven и PostgreSQL. Переменные окружения (значения по умолчанию для локальной базы):
+#   SPRING_DATASOURCE_URL, SPRING_DATASOURCE_USERNAME, SPRING_DATASOURCE_PASSWORD
+#   PROFILE  профиль при AOT-обработке и запусках, по умолчанию dev (ключи JWT в памяти);
+#            для prod нужен JWT_KEYS_LOCATION, см. docs/jwt-keys.md
+#   RUNS     число запусков каждого варианта, по умолчанию 3
+#   PORT     порт приложения, по умолчанию 8080
+#   SKIP_BUILD=1  использовать уже собранный target/backend-0.0.1-SNAPSHOT.jar (собранный с -Paot)
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+export SPRING_DATASOURCE_URL="${SPRING_DATASOURCE_URL:-jdbc:postgresql://localhost:5432/postgres}"
+export SPRING_DATASOURCE_USERNAME="${SPRING_DATASOURCE_USERNAME:-postgres}"
+export SPRING_DATASOURCE_PASSWORD="${SPRING_DATASOURCE_PASSWORD:-}"
+export SUPPORT_EMAIL="${SUPPORT_EMAIL:-benchmark@example.com}"
+export APP_PASSWORD="${APP_PASSWORD:-benchmark}"
+export SERVER_PORT="${PORT:-8080}"
+PROFILE="${PROFILE:-dev}"
+RUNS="${RUNS:-3}"
+
+jar=target/backend-0.0.1-SNAPSHOT.jar
+work="$(mktemp -d)"
+trap 'rm -rf "$work"' EXIT
+
+if [[ "${SKIP_BUILD:-0}" != 1 ]]; then
+    # Условия бинов фиксируются при AOT-обработке, поэтому профиль тот же, что и при запусках
+    mvn -B -q -Paot clean package -DskipTests -Dspring-boot.aot.jvmArguments=-Dspring.profiles.active="$PROFILE"
+fi
+
+java -Djarmode=tools -jar "$jar" extract --application-filename application.jar --destination "$work/extracted"
+app="$work/extracted/application.jar"
+
+# Тренировочный запуск, как в Dockerfile: контекст поднимается и JVM сразу завершается
+java -XX:ArchiveClassesAtExit="$work/application.jsa" -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -Dspring.profiles.active="$PROFILE",training -jar "$app" > "$work/training.log" 2>&1
+
+# Запускает JVM, ждет первого ответа health и печатает "<Started in, с> <до ответа, с> <HTTP-статус>"
+measure() {
+    local log="$work/run.log" start status elapsed started pid
+    start=$(date +%s%N)
+    java -Dspring.profiles.active="$PROFILE" "$@" > "$log" 2>&1 &
+    pid=$!
+    status=000
+    while [[ "$status" == 000 ]]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "JVM завершилась до ответа, лог: $log" >&2
+            cat "$log" >&2
+            exit 1
+        fi
+        sleep 0.05
+        status=$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$SERVER_PORT/actuator/health" || true)
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" || true
+    started=$(grep -o 'Started BackendApplication in [0-9.]* seconds' "$log" | grep -o '[0-9.]*' | head -1)
+    printf '%s %d.%03d %s\n' "${started:-?}" $((elapsed / 1000)) $((elapsed % 1000)) "$status"
+}
+
+variant() {
+    local name="$1"
+    shift
+    for ((i = 1; i <= RUNS; i++)); do
+        printf '%-24s %s\n' "$name" "$(measure "$@")"
+    done
+}
+
+echo "$(java -version 2>&1 | head -1), $(nproc) CPU, профиль $PROFILE, $SPRING_DATASOURCE_URL"
+printf '%-24s %s\n' "variant" "started_s health_s status"
+variant "fat jar" -jar "$jar"
+variant "extracted" -jar "$app"
+variant "extracted + AOT" -Dspring.aot.enabled=true -jar "$app"
+variant "extracted + AOT + CDS" -XX:SharedArchiveFile="$work/application.jsa" -Dspring.aot.enabled=true -jar "$app"
@@ -1,9 +1,15 @@
 package com.vectoredu.backend;
 
+import com.vectoredu.backend.config.NativeRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+@SpringBootApplication(exclude = UserDetailsServiceAutoConfiguration.class)
+@EnableScheduling
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class BackendApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,220 @@
+package com.vectoredu.backend.cache;
+
+import com.vectoredu.backend.model.User;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.access.NaturalIdDataAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Межузловая инвалидация кэша пользователей через PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * Отдельный поток держит собственное соединение с основной базой (не из пула: оно занято всегда,
+ * а реплики NOTIFY не получают). В нем он слушает канал {@value #CHANNEL}, удаляет из {@link UserCache}
+ * и из кэша второго уровня Hibernate id, пришедшие от других узлов, и отправляет накопленные id этого узла одним NOTIFY.
+ * Полезная нагрузка — записи через запятую: {@code id} для измененного пользователя и {@code id:почта}
+ * для удаленного, у которого из кэша убирается и соответствие почта -> id.
+ * После переподключения локальный кэш очищается целиком, потому что уведомления за время разрыва потеряны.
+ */
+@Slf4j
+@Component
+public class CacheInvalidationListener {
+    static final String CHANNEL = "user_cache";
+    // Полезная нагрузка NOTIFY ограничена 8000 байт
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    private final UserCache userCache;
+    private final EntityManagerFactory entityManagerFactory;
+    private final DataSourceProperties dataSourceProperties;
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+
+    @Value("${app.cache.invalidation.enabled}")
+    private boolean enabled;
+
+    @Value("${app.cache.invalidation.poll-interval}")
+    private int pollIntervalMillis;
+
+    @Value("${app.cache.invalidation.reconnect-delay}")
+    private long reconnectDelayMillis;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    // EntityManagerFactory ленивый: слушатель нужен сущности User еще во время создания фабрики
+    public CacheInvalidationListener(
+            UserCache userCache,
+            @Lazy EntityManagerFactory entityManagerFactory,
+            DataSourceProperties dataSourceProperties
+    ) {
+        this.userCache = userCache;
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSourceProperties = dataSourceProperties;
+    }
+
+    /**
+     * Ставит id в очередь на отправку другим узлам; отправка происходит в потоке слушателя.
+     */
+    public void publish(Long id) {
+        if (enabled) {
+            pending.add(String.valueOf(id));
+        }
+    }
+
+    /**
+     * То же для удаленного пользователя: почта натуральный ключ и может достаться новой строке с другим id.
+     */
+    public void publishRemoval(Long id, String email) {
+        if (enabled) {
+            pending.add(id + ":" + email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Межузловая инвалидация кэша отключена");
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listen, "cache-invalidation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(pollIntervalMillis * 2L + 1000);
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int ownPid = pgConnection.getBackendPID();
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                userCache.evictAll();
+                entityManagerFactory.getCache().evict(User.class);
+                entityManagerFactory.unwrap(SessionFactory.class).getCache().evictNaturalIdData(User.class);
+                log.info("Слушаем канал {} для инвалидации кэша", CHANNEL);
+
+                while (running) {
+                    sendPending(connection);
+                    PGNotification[] notifications = pgConnection.getNotifications(pollIntervalMillis);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        // Свои изменения уже удалены из кэша после коммита
+                        if (notification.getPID() != ownPid) {
+                            evict(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Соединение для инвалидации кэша потеряно, повтор через {} мс: {}", reconnectDelayMillis, e.toString());
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void sendPending(Connection connection) throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> entries = new ArrayList<>();
+        for (String entry = pending.poll(); entry != null; entry = pending.poll()) {
+            entries.add(entry);
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            StringBuilder payload = new StringBuilder();
+            for (String entry : entries) {
+                if (payload.length() > MAX_PAYLOAD_LENGTH) {
+                    notify(statement, payload);
+                }
+                if (!payload.isEmpty()) {
+                    payload.append(',');
+                }
+                payload.append(entry);
+            }
+            notify(statement, payload);
+        } catch (SQLException e) {
+            // Неотправленные записи уйдут после переподключения; повтор уже отправленных безвреден
+            pending.addAll(entries);
+            throw e;
+        }
+    }
+
+    private static void notify(PreparedStatement statement, StringBuilder payload) throws SQLException {
+        statement.setString(1, CHANNEL);
+        statement.setString(2, payload.toString());
+        statement.execute();
+        payload.setLength(0);
+    }
+
+    // Кэш второго уровня Hibernate тоже локальный: сущность удаляется по id. Почта неизменяема,
+    // поэтому соответствие почта -> id удаляется только для удаленного пользователя
+    private void evict(String payload) {
+        for (String entry : payload.split(",")) {
+            int separator = entry.indexOf(':');
+            String id = separator < 0 ? entry : entry.substring(0, separator);
+            try {
+                Long userId = Long.parseLong(id.trim());
+                userCache.evict(userId);
+                entityManagerFactory.getCache().evict(User.class, userId);
+            } catch (NumberFormatException e) {
+                log.debug("Некорректный id в уведомлении {}: {}", CHANNEL, entry);
+                continue;
+            }
+            if (separator >= 0) {
+                evictNaturalId(entry.substring(separator + 1));
+            }
+        }
+    }
+
+    private void evictNaturalId(String email) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(User.class);
+        NaturalIdDataAccess access = persister.getNaturalIdCacheAccessStrategy();
+        // Сессия нужна только для построения ключа, соединение она не берет
+        try (SessionImplementor session = (SessionImplementor) sessionFactory.openSession()) {
+            access.evict(access.generateCacheKey(email, persister, session));
+        }
+    }
+}
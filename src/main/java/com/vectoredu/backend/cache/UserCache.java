@@ -0,0 +1,53 @@
+package com.vectoredu.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vectoredu.backend.model.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Локальный кэш пользователей по id для проверки токена в каждом запросе.
+ * <p>
+ * Записи удаляются после коммита изменения на этом узле ({@link UserCacheInvalidator}) и по NOTIFY
+ * с других узлов ({@link CacheInvalidationListener}); TTL ограничивает устаревание, если уведомление
+ * потерялось. Наружу отдаются копии: вызывающий код меняет, например, признак блокировки.
+ */
+@Component
+public class UserCache {
+    private final Cache<Long, User> cache;
+
+    public UserCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.user.max-size}") long maxSize,
+            @Value("${app.cache.user.ttl}") long ttlMillis
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    // Отсутствующие пользователи не кэшируются. Удаление ключа ждет загрузку, начатую до него,
+    // поэтому значение, прочитанное до коммита изменения, в кэше не остается
+    public Optional<User> get(Long id, Function<Long, Optional<User>> loader) {
+        User user = cache.get(id, key -> loader.apply(key).orElse(null));
+        return Optional.ofNullable(user).map(cached -> cached.toBuilder().build());
+    }
+
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
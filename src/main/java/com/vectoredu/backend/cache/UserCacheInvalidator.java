@@ -0,0 +1,60 @@
+package com.vectoredu.backend.cache;
+
+import com.vectoredu.backend.model.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA-слушатель {@link User}: после коммита изменения или удаления запись убирается из локального
+ * кэша и публикуется для остальных узлов. До коммита удалять нельзя: параллельный запрос успел бы
+ * загрузить в кэш старую строку. Массовые JPQL-обновления и пакетная вставка слушатель не вызывают.
+ */
+@Component
+public class UserCacheInvalidator {
+    private final UserCache userCache;
+    private final CacheInvalidationListener invalidationListener;
+
+    public UserCacheInvalidator(UserCache userCache, CacheInvalidationListener invalidationListener) {
+        this.userCache = userCache;
+        this.invalidationListener = invalidationListener;
+    }
+
+    @PostUpdate
+    public void userChanged(User user) {
+        afterCommit(user.getId(), null);
+    }
+
+    @PostRemove
+    public void userRemoved(User user) {
+        afterCommit(user.getId(), user.getEmail());
+    }
+
+    // removedEmail задан только при удалении: почта неизменяема, и соответствие почта -> id устаревает только так
+    private void afterCommit(Long id, String removedEmail) {
+        if (id == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(id, removedEmail);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(id, removedEmail);
+            }
+        });
+    }
+
+    private void invalidate(Long id, String removedEmail) {
+        userCache.evict(id);
+        if (removedEmail == null) {
+            invalidationListener.publish(id);
+        } else {
+            invalidationListener.publishRemoval(id, removedEmail);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.vectoredu.backend.config;
+
+import com.vectoredu.backend.util.logging.MdcTaskDecorator;
+import com.vectoredu.backend.util.query.QueryCounterTaskDecorator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.CompositeTaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Ограниченные пулы для фоновой работы. При заполнении очереди задача выполняется
+ * в вызывающем потоке, что притормаживает источник нагрузки вместо отказа.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfiguration {
+
+    @Bean
+    ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${app.import.hashing-threads}") int threads,
+            @Value("${app.import.batch-size}") int queueCapacity
+    ) {
+        return boundedExecutor("password-hashing-", threads, queueCapacity);
+    }
+
+    @Bean
+    ThreadPoolTaskExecutor mailExecutor(
+            @Value("${app.mail.threads}") int threads,
+            @Value("${app.mail.queue-capacity}") int queueCapacity
+    ) {
+        return boundedExecutor("mail-", threads, queueCapacity);
+    }
+
+    // Переполнение не перекладывается на поток сервлета: запрос отклоняется и клиент получает 503
+    @Bean
+    ThreadPoolTaskExecutor authTaskExecutor(
+            @Value("${app.auth.threads}") int threads,
+            @Value("${app.auth.queue-capacity}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = boundedExecutor("auth-", threads, queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    private ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(new CompositeTaskDecorator(List.of(new MdcTaskDecorator(), new QueryCounterTaskDecorator())));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -1,6 +1,8 @@
 package com.vectoredu.backend.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -9,27 +11,30 @@ import org.springframework.mail.javamail.JavaMailSenderImpl;
 import java.util.Properties;
 
 @Configuration
+@EnableConfigurationProperties(MailProperties.class)
 public class EmailConfiguration {
 
-    @Value("${spring.mail.username}")
-    private String emailUsername;
-
-    @Value("${spring.mail.password}")
-    private String emailPassword;
-
     @Bean
-    public JavaMailSender javaMailSender() {
+    public JavaMailSender javaMailSender(
+            MailProperties mailProperties,
+            // Протокол SMTP в stdout нужен только при отладке доставки
+            @Value("${app.mail.debug:false}") boolean mailDebug
+    ) {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-        mailSender.setHost("smtp.gmail.com");
-        mailSender.setPort(587);
-        mailSender.setUsername(emailUsername);
-        mailSender.setPassword(emailPassword);
-
+        mailSender.setHost(mailProperties.getHost());
+        if (mailProperties.getPort() != null) {
+            mailSender.setPort(mailProperties.getPort());
+        }
+        mailSender.setUsername(mailProperties.getUsername());
+        mailSender.setPassword(mailProperties.getPassword());
+        mailSender.setProtocol(mailProperties.getProtocol());
+        mailSender.setDefaultEncoding(mailProperties.getDefaultEncoding().name());
+
+        // Все spring.mail.properties.*, в том числе таймауты SMTP: без них поток пула отправки
+        // остается заблокированным на медленном сервере и после того, как запрос получил 503
         Properties props = mailSender.getJavaMailProperties();
-        props.put("mail.transport.protocol", "smtp");
-        props.put("mail.smtp.auth", "true");
-        props.put("mail.smtp.starttls.enable", "true");
-        props.put("mail.debug", "true");
+        props.putAll(mailProperties.getProperties());
+        props.put("mail.debug", String.valueOf(mailDebug));
 
         return mailSender;
     }
@@ -0,0 +1,102 @@
+package com.vectoredu.backend.config;
+
+import com.vectoredu.backend.cache.UserCacheInvalidator;
+import com.vectoredu.backend.dto.request.IntrospectTokensDto;
+import com.vectoredu.backend.dto.request.LoginUserDto;
+import com.vectoredu.backend.dto.request.RefreshToken;
+import com.vectoredu.backend.dto.request.RegisterUserDto;
+import com.vectoredu.backend.dto.request.VerifyUserDto;
+import com.vectoredu.backend.dto.response.LoginResponse;
+import com.vectoredu.backend.dto.response.TokenIntrospection;
+import com.vectoredu.backend.dto.response.UserImportReport;
+import com.vectoredu.backend.model.PasswordResetToken;
+import com.vectoredu.backend.model.User;
+import com.vectoredu.backend.util.ErrorResponse;
+import com.vectoredu.backend.util.logging.SamplingFilter;
+import com.vectoredu.backend.util.validators.EmailValidator;
+import com.vectoredu.backend.util.validators.PasswordValidator;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Подсказки для GraalVM native-image (профиль native) там, где AOT-обработка Spring не выводит их сама.
+ * <p>
+ * jjwt-api создает реализации из jjwt-impl по имени класса, а сериализатор jjwt-jackson и алгоритмы
+ * сжатия находит через ServiceLoader. Провайдер JCache задан строкой в свойствах Hibernate и читает
+ * application.conf, фильтр логов создает Logback по имени из logback-spring.xml. DTO и сущности
+ * регистрируются для Jackson целиком, в том числе те, что возвращаются как {@code ResponseEntity<?>}
+ * или из обработчика исключений.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    // Классы, которые jjwt-api загружает через Classes.newInstance/forName
+    private static final String[] JJWT_IMPL_CLASSES = {
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+    };
+
+    // Реализации, которые находятся через META-INF/services
+    private static final String[] SERVICE_PROVIDERS = {
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionAlgorithm",
+            "io.jsonwebtoken.impl.compression.GzipCompressionAlgorithm",
+            "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider",
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String className : JJWT_IMPL_CLASSES) {
+            hints.reflection().registerType(TypeReference.of(className),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        for (String className : SERVICE_PROVIDERS) {
+            hints.reflection().registerType(TypeReference.of(className), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        hints.resources()
+                .registerPattern("META-INF/services/io.jsonwebtoken.*")
+                .registerPattern("META-INF/services/javax.cache.spi.CachingProvider")
+                // Настройки регионов кэша второго уровня и значения по умолчанию Caffeine JCache (Typesafe Config)
+                .registerPattern("application.conf")
+                .registerPattern("reference.conf");
+
+        // Создаются по имени класса: Logback, Hibernate (слушатель сущности) и Hibernate Validator
+        hints.reflection().registerType(SamplingFilter.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        hints.reflection().registerType(UserCacheInvalidator.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        hints.reflection().registerType(PasswordValidator.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(EmailValidator.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+        // Сущности: Hibernate обращается к полям и конструктору без аргументов, сгенерированным Lombok
+        for (Class<?> entity : new Class<?>[]{User.class, PasswordResetToken.class}) {
+            hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                User.class, ErrorResponse.class,
+                LoginUserDto.class, RegisterUserDto.class, VerifyUserDto.class, RefreshToken.class,
+                IntrospectTokensDto.class, LoginResponse.class, TokenIntrospection.class, UserImportReport.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.vectoredu.backend.config;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Откладывает создание бинов springdoc до первого запроса документации.
+ * <p>
+ * Саму модель OpenAPI springdoc строит при первом обращении к /v3/api-docs, но его инфраструктура
+ * (сервисы сканирования, конвертеры моделей, контроллеры api-docs и swagger-ui) создается при старте.
+ * Контроллеры Spring MVC регистрирует по имени бина, поэтому ленивый контроллер и все, от чего он
+ * зависит, создаются при первом запросе. Бины, которые контекст запрашивает раньше (WebMvcConfigurer,
+ * слушатели событий), по-прежнему создаются при старте. В профиле prod документация выключена и этих
+ * бинов нет совсем.
+ */
+@Component
+public class OpenApiLazyInitialization implements BeanFactoryPostProcessor {
+    private static final String SPRINGDOC_PACKAGE = "org.springdoc.";
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE && isSpringdoc(beanFactory, definition)) {
+                definition.setLazyInit(true);
+            }
+        }
+    }
+
+    // Бины из @Bean-методов не знают свой класс до создания, поэтому проверяется и класс конфигурации
+    private static boolean isSpringdoc(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        if (isSpringdocClass(definition.getBeanClassName())) {
+            return true;
+        }
+        String factoryBeanName = definition.getFactoryBeanName();
+        return factoryBeanName != null && beanFactory.containsBeanDefinition(factoryBeanName)
+                && isSpringdocClass(beanFactory.getBeanDefinition(factoryBeanName).getBeanClassName());
+    }
+
+    private static boolean isSpringdocClass(String className) {
+        return className != null && className.startsWith(SPRINGDOC_PACKAGE);
+    }
+}
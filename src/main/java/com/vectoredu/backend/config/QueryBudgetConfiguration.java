@@ -0,0 +1,38 @@
+package com.vectoredu.backend.config;
+
+import com.vectoredu.backend.util.query.QueryCountInspector;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Бюджет SQL-запросов на эндпоинт для разработки и тестов: {@code app.query-budget.mode} равен
+ * {@code log} или {@code fail}. В режиме {@code off} (по умолчанию) ничего не регистрируется.
+ * <p>
+ * Считаются запросы Hibernate, пакетная вставка импорта через JdbcTemplate в счет не входит.
+ */
+@Configuration
+@ConditionalOnExpression("'${app.query-budget.mode:off}' != 'off'")
+public class QueryBudgetConfiguration implements WebMvcConfigurer {
+
+    @Value("${app.query-budget.mode}")
+    private String mode;
+
+    @Value("${app.query-budget.default}")
+    private int defaultBudget;
+
+    @Bean
+    HibernatePropertiesCustomizer queryCountInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryBudgetInterceptor(defaultBudget, "fail".equals(mode)));
+    }
+}
@@ -0,0 +1,72 @@
+package com.vectoredu.backend.config;
+
+import com.vectoredu.backend.util.query.QueryBudget;
+import com.vectoredu.backend.util.query.QueryCounter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Считает SQL-запросы обработчика и сравнивает их с {@link QueryBudget}.
+ * <p>
+ * Счетчик хранится в атрибуте запроса, чтобы асинхронный диспатч продолжил тот же счет. В режиме
+ * {@code log} превышение пишется в лог после ответа, в режиме {@code fail} первый лишний запрос
+ * завершается исключением, и тест эндпоинта падает с 500.
+ */
+@Slf4j
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor {
+    private static final String COUNTER = QueryCounter.class.getName();
+
+    private final int defaultBudget;
+    private final boolean failFast;
+
+    public QueryBudgetInterceptor(int defaultBudget, boolean failFast) {
+        this.defaultBudget = defaultBudget;
+        this.failFast = failFast;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            QueryCounter counter = (QueryCounter) request.getAttribute(COUNTER);
+            if (counter == null) {
+                counter = new QueryCounter(request.getMethod() + " " + request.getRequestURI(),
+                        budget(handlerMethod), failFast);
+                request.setAttribute(COUNTER, counter);
+            }
+            QueryCounter.bind(counter);
+        }
+        return true;
+    }
+
+    // Обработчик ушел в пул: поток сервлета освобождается, счет продолжится в async-диспатче
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                               @NonNull Object handler) {
+        QueryCounter.unbind();
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        QueryCounter.unbind();
+        QueryCounter counter = (QueryCounter) request.getAttribute(COUNTER);
+        if (counter != null && counter.isExceeded() && !failFast) {
+            log.warn("Превышен бюджет SQL-запросов {}: {} при бюджете {}",
+                    counter.getEndpoint(), counter.getCount(), counter.getBudget());
+        }
+    }
+
+    private int budget(HandlerMethod handlerMethod) {
+        QueryBudget budget = handlerMethod.getMethodAnnotation(QueryBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), QueryBudget.class);
+        }
+        return budget != null ? budget.value() : defaultBudget;
+    }
+}
@@ -0,0 +1,112 @@
+package com.vectoredu.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Источник соединений, выбирающий базу по текущей транзакции.
+ * <p>
+ * Вне read-only транзакции соединение всегда берется с основной базы. Чтение в read-only транзакции
+ * распределяется по репликам по кругу, их отставание периодически проверяется.
+ * Реплики, отстающие больше допустимого или недоступные, исключаются из ротации;
+ * если подходящих реплик нет, чтение идет на основную базу.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    static final String PRIMARY = "primary";
+
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END::bigint
+            """;
+
+    private final Map<String, DataSource> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    // До первой проверки чтение идет на основную базу
+    private volatile List<String> healthyReplicas = List.of();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMillis) {
+        this.replicas = replicas;
+        this.maxLagMillis = maxLagMillis;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    // Признак выставляется менеджером транзакций после begin, а соединение берется только
+    // при первом запросе (LazyConnectionDataSourceProxy), поэтому к этому моменту он уже известен
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(counter.getAndIncrement(), healthy.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval}")
+    public void refreshReplicaLag() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        List<String> healthy = new ArrayList<>();
+        replicas.forEach((key, dataSource) -> {
+            try {
+                long lag = queryLag(dataSource);
+                if (lag <= maxLagMillis) {
+                    healthy.add(key);
+                } else {
+                    log.warn("Реплика {} отстает на {} мс и исключена из чтения", key, lag);
+                }
+            } catch (SQLException e) {
+                log.warn("Реплика {} недоступна: {}", key, e.getMessage());
+            }
+        });
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : replicas.values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private long queryLag(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.vectoredu.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Кладет в MDC идентификатор запроса и трассы, чтобы они попадали в каждую строку JSON-лога.
+ * <p>
+ * {@code requestId} берется из заголовка X-Request-Id, если он корректен, иначе генерируется
+ * и возвращается клиенту. {@code traceId} извлекается из W3C-заголовка traceparent.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String REQUEST_ID = "requestId";
+    public static final String TRACE_ID = "traceId";
+
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        // При async-диспатче идентификатор уже назначен, берем его из атрибута запроса
+        String requestId = (String) request.getAttribute(REQUEST_ID);
+        if (requestId == null) {
+            requestId = sanitize(request.getHeader(REQUEST_ID_HEADER));
+            request.setAttribute(REQUEST_ID, requestId);
+            response.setHeader(REQUEST_ID_HEADER, requestId);
+        }
+
+        MDC.put(REQUEST_ID, requestId);
+        String traceId = traceId(request.getHeader("traceparent"));
+        if (traceId != null) {
+            MDC.put(TRACE_ID, traceId);
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(REQUEST_ID);
+            MDC.remove(TRACE_ID);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    // Значение клиента попадает в логи, поэтому допускаются только короткие строки из [A-Za-z0-9-_.]
+    private static String sanitize(String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            return newRequestId();
+        }
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.';
+            if (!allowed) {
+                return newRequestId();
+            }
+        }
+        return requestId;
+    }
+
+    // traceparent: version-traceid-parentid-flags, traceid - 32 hex-символа
+    private static String traceId(String traceparent) {
+        if (traceparent == null || traceparent.length() < 55 || traceparent.charAt(2) != '-') {
+            return null;
+        }
+        String traceId = traceparent.substring(3, 35);
+        for (int i = 0; i < traceId.length(); i++) {
+            if (Character.digit(traceId.charAt(i), 16) < 0) {
+                return null;
+            }
+        }
+        return traceId;
+    }
+
+    // Идентификатор запроса не секрет, поэтому берется из ThreadLocalRandom, а не из общего SecureRandom
+    private static String newRequestId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
@@ -0,0 +1,81 @@
+package com.vectoredu.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Перевод существующих строк с открытых секретов на дайджесты.
+ * <p>
+ * Колонки verification_code_hash и token_hash создает Hibernate (ddl-auto=update), но старые
+ * колонки он не удаляет. Здесь дайджесты вычисляются на стороне PostgreSQL тем же способом,
+ * что и в SecretDigest (SHA-256 от UTF-8 строки "почта:код" и от токена), а открытое значение
+ * сразу обнуляется. Если старых колонок нет, миграция ничего не делает.
+ * <p>
+ * Миграция запускается на каждом узле, поэтому узлы выполняют ее по очереди под advisory-блокировкой.
+ * Новая версия открытые колонки не пишет, поэтому непустое значение в них всегда свежее дайджеста:
+ * его записал узел предыдущей версии во время выкладки, и следующий запуск пересчитает дайджест.
+ * Такие узлы не примут код или токен, выданный до миграции, — пользователь запросит новый.
+ * Сами колонки удаляются только при app.migration.drop-legacy-secret-columns=true, когда узлов
+ * предыдущей версии не осталось.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecretDigestMigration implements ApplicationRunner {
+    // Ключ advisory-блокировки миграции, общий для всех узлов
+    private static final long LOCK_KEY = 0x5EC2E7D16E57L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.migration.drop-legacy-secret-columns:false}")
+    private boolean dropLegacyColumns;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // Блокировка снимается вместе с транзакцией, второй узел увидит уже перенесенные строки
+            jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+            if (columnExists("users", "verification_code")) {
+                int migrated = jdbcTemplate.update("""
+                        UPDATE users
+                        SET verification_code_hash = sha256(convert_to(email || ':' || verification_code, 'UTF8')),
+                            verification_code = NULL
+                        WHERE verification_code IS NOT NULL
+                        """);
+                dropLegacyColumn("users", "verification_code");
+                log.info("Коды подтверждения переведены на дайджесты: {} строк", migrated);
+            }
+            if (columnExists("reset_password", "token")) {
+                int migrated = jdbcTemplate.update("""
+                        UPDATE reset_password
+                        SET token_hash = sha256(convert_to(token, 'UTF8')),
+                            token = NULL
+                        WHERE token IS NOT NULL
+                        """);
+                dropLegacyColumn("reset_password", "token");
+                log.info("Токены сброса пароля переведены на дайджесты: {} строк", migrated);
+            }
+        });
+    }
+
+    private void dropLegacyColumn(String table, String column) {
+        if (dropLegacyColumns) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN IF EXISTS " + column);
+        }
+    }
+
+    private boolean columnExists(String table, String column) {
+        Integer count = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = ? AND column_name = ?
+                """, Integer.class, table, column);
+        return count != null && count > 0;
+    }
+}
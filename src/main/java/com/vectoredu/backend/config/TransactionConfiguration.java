@@ -0,0 +1,31 @@
+package com.vectoredu.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Шаблоны программных транзакций. Второй шаблон заменяет автоконфигурацию Spring Boot,
+ * поэтому обычный шаблон объявлен здесь же и остается основным.
+ * <p>
+ * {@code readOnlyTransactionTemplate} оборачивает одиночные выборки: read-only транзакция уходит
+ * на реплику (см. {@link DataSourceConfiguration}), а Hibernate не выполняет flush и проверку изменений.
+ */
+@Configuration
+public class TransactionConfiguration {
+
+    @Bean
+    @Primary
+    public TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    @Bean
+    public TransactionTemplate readOnlyTransactionTemplate(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
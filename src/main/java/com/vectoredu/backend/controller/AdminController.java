@@ -0,0 +1,39 @@
+package com.vectoredu.backend.controller;
+
+import com.vectoredu.backend.dto.response.UserImportReport;
+import com.vectoredu.backend.service.UserImportService;
+import com.vectoredu.backend.util.query.QueryBudget;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@Tag(name = "Администрирование", description = "Операции, доступные администраторам")
+@RequestMapping("/admin")
+@RestController
+public class AdminController {
+    private final UserImportService userImportService;
+
+    public AdminController(UserImportService userImportService) {
+        this.userImportService = userImportService;
+    }
+
+    @Operation(summary = "Массовое создание пользователей из JSON-массива", responses = {
+            @ApiResponse(responseCode = "200", description = "Импорт завершен, отчет содержит ошибки по строкам"),
+            @ApiResponse(responseCode = "400", description = "Неверный формат файла")
+    })
+    // Тело читается потоково, поэтому принимается напрямую из запроса, а не через @RequestBody
+    @PostMapping(value = "/users/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @QueryBudget(QueryBudget.UNLIMITED)
+    public ResponseEntity<UserImportReport> importUsers(HttpServletRequest request) throws IOException {
+        UserImportReport report = userImportService.importUsers(request.getInputStream());
+        return ResponseEntity.ok(report);
+    }
+}
@@ -1,29 +1,61 @@
 package com.vectoredu.backend.controller;
 
+import com.vectoredu.backend.dto.request.IntrospectTokensDto;
 import com.vectoredu.backend.dto.request.LoginUserDto;
 import com.vectoredu.backend.dto.request.RefreshToken;
 import com.vectoredu.backend.dto.request.RegisterUserDto;
 import com.vectoredu.backend.dto.request.VerifyUserDto;
 import com.vectoredu.backend.dto.response.LoginResponse;
+import com.vectoredu.backend.dto.response.TokenIntrospection;
 import com.vectoredu.backend.model.User;
 import com.vectoredu.backend.service.AuthenticationService;
 import com.vectoredu.backend.service.JwtService;
+import com.vectoredu.backend.service.TokenIntrospectionService;
+import com.vectoredu.backend.util.OptimisticRetry;
+import com.vectoredu.backend.util.query.QueryBudget;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
 @Tag(name = "Аутентификация", description = "Операции, связанные с аутентификацией")
 @RequestMapping("/auth")
 @RestController
 public class AuthenticationController {
     private final JwtService jwtService;
     private final AuthenticationService authenticationService;
+    private final TokenIntrospectionService tokenIntrospectionService;
+    private final Executor authTaskExecutor;
+
+    @Value("${app.auth.timeout.signup}")
+    private long signupTimeout;
+
+    @Value("${app.auth.timeout.resend}")
+    private long resendTimeout;
 
-    public AuthenticationController(JwtService jwtService, AuthenticationService authenticationService) {
+    @Value("${app.auth.timeout.password-reset}")
+    private long passwordResetTimeout;
+
+    public AuthenticationController(
+            JwtService jwtService,
+            AuthenticationService authenticationService,
+            TokenIntrospectionService tokenIntrospectionService,
+            @Qualifier("authTaskExecutor") Executor authTaskExecutor
+    ) {
         this.jwtService = jwtService;
         this.authenticationService = authenticationService;
+        this.tokenIntrospectionService = tokenIntrospectionService;
+        this.authTaskExecutor = authTaskExecutor;
     }
 
     @Operation(summary = "Регистрация нового пользователя", responses = {
@@ -31,9 +63,12 @@ public class AuthenticationController {
             @ApiResponse(responseCode = "400", description = "Неверные данные")
     })
     @PostMapping("/signup")
-    public ResponseEntity<User> register(@RequestBody RegisterUserDto registerUserDto) {
-        User registeredUser = authenticationService.signup(registerUserDto);
-        return ResponseEntity.ok(registeredUser);
+    @QueryBudget(2)
+    public CompletableFuture<ResponseEntity<User>> register(@Valid @RequestBody RegisterUserDto registerUserDto) {
+        return runAsync(() -> {
+            User registeredUser = authenticationService.signup(registerUserDto);
+            return ResponseEntity.ok(registeredUser);
+        }, signupTimeout);
     }
 
     @Operation(summary = "Аутентификация пользователя и получение JWT", responses = {
@@ -42,6 +77,7 @@ public class AuthenticationController {
     })
     // Логика аутентификации и получения JWT токенов
     @PostMapping("/login")
+    @QueryBudget(1)
     public ResponseEntity<LoginResponse> authenticate(@RequestBody LoginUserDto loginUserDto){
         LoginResponse loginResponse = authenticationService.authenticate(loginUserDto);
         return ResponseEntity.ok(loginResponse);
@@ -53,16 +89,31 @@ public class AuthenticationController {
     })
     // Логика получения нового access токена по refresh токену
     @PostMapping("/refresh")
+    @QueryBudget(1)
     public ResponseEntity<String> refreshAccessToken(@RequestBody RefreshToken refreshToken){
         String newAccessToken = authenticationService.refreshAccessToken(refreshToken.getToken());
         return ResponseEntity.ok(newAccessToken);
     }
 
+    @Operation(summary = "Проверка пачки токенов", responses = {
+            @ApiResponse(responseCode = "200", description = "Результаты в порядке переданных токенов"),
+            @ApiResponse(responseCode = "400", description = "Пустой или слишком большой список"),
+            @ApiResponse(responseCode = "403", description = "Запрос без токена доступа")
+    })
+    // Для сервисов, которые не проверяют JWT сами; вызывающий передает свой токен, все subject пачки проверяются одним запросом
+    @PostMapping("/introspect")
+    @QueryBudget(1)
+    public ResponseEntity<List<TokenIntrospection>> introspect(@Valid @RequestBody IntrospectTokensDto introspectTokensDto) {
+        return ResponseEntity.ok(tokenIntrospectionService.introspect(introspectTokensDto.getTokens()));
+    }
+
     @Operation(summary = "Подтверждение аккаунта пользователя", responses = {
             @ApiResponse(responseCode = "200", description = "Аккаунт успешно подтвержден"),
             @ApiResponse(responseCode = "400", description = "Неверные данные для подтверждения")
     })
+    // Чтение и обновление на каждую попытку при конфликте версий
     @PostMapping("/verify")
+    @QueryBudget(2 * OptimisticRetry.MAX_ATTEMPTS)
     public ResponseEntity<?> verifyUser(@RequestBody VerifyUserDto verifyUserDto) {
         authenticationService.verifyUser(verifyUserDto);
         return ResponseEntity.ok("Аккаунт успешно подтвержден");
@@ -73,9 +124,12 @@ public class AuthenticationController {
             @ApiResponse(responseCode = "400", description = "Ошибка при отправке кода")
     })
     @PostMapping("/resend")
-    public ResponseEntity<?> resendVerificationCode(@RequestParam String email) {
-        authenticationService.resendVerificationCode(email);
-        return ResponseEntity.ok("Код для подтверждения отправлен");
+    @QueryBudget(2 * OptimisticRetry.MAX_ATTEMPTS)
+    public CompletableFuture<ResponseEntity<String>> resendVerificationCode(@RequestParam String email) {
+        return runAsync(() -> {
+            authenticationService.resendVerificationCode(email);
+            return ResponseEntity.ok("Код для подтверждения отправлен");
+        }, resendTimeout);
     }
 
     @Operation(summary = "Запрос на восстановление пароля", responses = {
@@ -83,18 +137,30 @@ public class AuthenticationController {
             @ApiResponse(responseCode = "400", description = "Неверные данные")
     })
     @PostMapping("/request-password-reset")
-    public ResponseEntity<String> requestPasswordReset(@RequestParam String email) {
-        authenticationService.requestPasswordReset(email);
-        return ResponseEntity.ok("Ссылка для сброса пароля отправлена на вашу почту");
+    @QueryBudget(3)
+    public CompletableFuture<ResponseEntity<String>> requestPasswordReset(@RequestParam String email) {
+        return runAsync(() -> {
+            authenticationService.requestPasswordReset(email);
+            return ResponseEntity.ok("Ссылка для сброса пароля отправлена на вашу почту");
+        }, passwordResetTimeout);
     }
 
     @Operation(summary = "форма для восстановление пароля", responses = {
             @ApiResponse(responseCode = "200", description = "пароль успешно изменен"),
             @ApiResponse(responseCode = "400", description = "Неверные данные")
     })
+    // Ранняя проверка токена, затем токен, пользователь и удаление токена на каждую попытку
     @PatchMapping("/reset-password")
+    @QueryBudget(1 + 3 * OptimisticRetry.MAX_ATTEMPTS)
     public ResponseEntity<String> resetPassword(@RequestParam String token, @RequestParam String newPassword) {
         authenticationService.resetPassword(token, newPassword);
         return ResponseEntity.ok("Пароль успешно изменен");
     }
-}
\ No newline at end of file
+
+    // Обработчики с отправкой почты выполняются в отдельном пуле, поток сервлета освобождается сразу.
+    // По истечении таймаута клиент получает 503, а начатая операция доводится до конца в фоне
+    private <T> CompletableFuture<T> runAsync(Supplier<T> task, long timeoutMillis) {
+        return CompletableFuture.supplyAsync(task, authTaskExecutor)
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
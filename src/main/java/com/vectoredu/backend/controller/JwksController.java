@@ -0,0 +1,35 @@
+package com.vectoredu.backend.controller;
+
+import com.vectoredu.backend.service.JwtKeyService;
+import com.vectoredu.backend.util.query.QueryBudget;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+@RestController
+public class JwksController {
+    private final JwtKeyService jwtKeyService;
+
+    @Value("${security.jwt.jwks-max-age}")
+    private long jwksMaxAgeMillis;
+
+    public JwksController(JwtKeyService jwtKeyService) {
+        this.jwtKeyService = jwtKeyService;
+    }
+
+    // Новый ключ публикуется за jwks-max-age до начала подписи, поэтому ответ можно долго кэшировать
+    @QueryBudget(0)
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        String jwks = jwtKeyService.jwks();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMillis(jwksMaxAgeMillis)).cachePublic())
+                .eTag("W/\"jwks-" + Integer.toHexString(jwks.hashCode()) + "\"")
+                .body(jwks);
+    }
+}
@@ -2,12 +2,14 @@ package com.vectoredu.backend.controller;
 
 import com.vectoredu.backend.model.User;
 import com.vectoredu.backend.service.UserService;
+import com.vectoredu.backend.util.query.QueryBudget;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,15 +21,25 @@ public class UserController {
         this.userService = userService;
     }
 
+    // Пользователь уже загружен фильтром аутентификации
     @GetMapping("/me")
+    @QueryBudget(0)
     public ResponseEntity<User> authenticatedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         User currentUser = (User) authentication.getPrincipal();
-        return ResponseEntity.ok(currentUser);
+        // При совпадении If-None-Match Spring отвечает 304, не сериализуя тело
+        return ResponseEntity.ok()
+                .eTag(userService.userETag(currentUser))
+                .body(currentUser);
     }
 
     @GetMapping("/")
-    public ResponseEntity<List<User>> allUsers() {
+    @QueryBudget(2)
+    public ResponseEntity<List<User>> allUsers(WebRequest request) {
+        // Отпечаток проверяется до загрузки списка, неизмененный список не читается из базы
+        if (request.checkNotModified(userService.allUsersETag())) {
+            return null;
+        }
         List <User> users = userService.allUsers();
         return ResponseEntity.ok(users);
     }
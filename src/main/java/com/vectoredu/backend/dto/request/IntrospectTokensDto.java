@@ -0,0 +1,21 @@
+package com.vectoredu.backend.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+import java.util.List;
+
+@Data
+@Accessors(chain=true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class IntrospectTokensDto {
+
+    @NotEmpty(message = "Список токенов не может быть пустым")
+    @Size(max = 100, message = "За один запрос можно проверить не более 100 токенов")
+    private List<String> tokens;
+}
@@ -14,10 +14,10 @@ import lombok.experimental.Accessors;
 @NoArgsConstructor
 public class RegisterUserDto {
 
-    @NotBlank()
+    @NotBlank(message = "Поле с именем не может быть пустым")
     private String firstName;
 
-    @NotBlank()
+    @NotBlank(message = "Поле с фамилией не может быть пустым")
     private String lastName;
 
     @ValidEmail
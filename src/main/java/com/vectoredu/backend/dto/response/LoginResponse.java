@@ -15,4 +15,8 @@ public class LoginResponse {
 
     private String refreshToken;
     private Instant refreshExpiresIn;
+
+    // Клиенту стоит обновить access-токен после этого момента, не дожидаясь 401; момент выбирается
+    // случайно между 75% и 90% срока жизни, чтобы обновления не приходили разом
+    private Instant refreshAfter;
 }
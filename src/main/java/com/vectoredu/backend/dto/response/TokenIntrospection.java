@@ -0,0 +1,18 @@
+package com.vectoredu.backend.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.time.Instant;
+
+// Результат неизменяемый, потому что один экземпляр отдается из кэша многим запросам;
+// для недействительного токена возвращается только active=false
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+    public static final TokenIntrospection INACTIVE = new TokenIntrospection(false, null, null);
+
+    boolean active;
+    String subject;
+    Instant expiresAt;
+}
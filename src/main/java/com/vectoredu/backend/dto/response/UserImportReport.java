@@ -0,0 +1,28 @@
+package com.vectoredu.backend.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class UserImportReport {
+    private int processed;
+    private int created;
+    private int failed;
+
+    // Ошибки хранятся до лимита, дальше только считаются
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private int row;
+        private String email;
+        private String message;
+    }
+}
@@ -0,0 +1,27 @@
+package com.vectoredu.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "login_attempts")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoginAttempt {
+
+    @Id
+    private String email;
+
+    @Column(name = "failed_attempts", nullable = false)
+    private int failedAttempts;
+
+    @Column(name = "last_failure_at")
+    private LocalDateTime lastFailureAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+}
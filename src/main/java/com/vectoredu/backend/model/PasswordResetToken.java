@@ -2,6 +2,7 @@ package com.vectoredu.backend.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -21,15 +22,22 @@ public class PasswordResetToken {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(unique = true)
-    private String token;
+    // SHA-256 от токена, сам токен есть только в письме пользователю
+    @Column(name = "token_hash", unique = true)
+    private byte[] tokenHash;
 
     @Column(name = "expiration_date")
     private LocalDateTime expirationDate;
 
-    public PasswordResetToken(User user, String token, LocalDateTime expirationDate) {
+    // Параллельное использование одного токена обнаруживается при удалении по версии
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    public PasswordResetToken(User user, byte[] tokenHash, LocalDateTime expirationDate) {
         this.user = user;
-        this.token = token;
+        this.tokenHash = tokenHash;
         this.expirationDate = expirationDate;
     }
 }
@@ -0,0 +1,6 @@
+package com.vectoredu.backend.model;
+
+public enum Role {
+    USER,
+    ADMIN
+}
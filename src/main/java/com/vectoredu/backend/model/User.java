@@ -1,18 +1,31 @@
 package com.vectoredu.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.vectoredu.backend.cache.UserCacheInvalidator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
+// Кэш второго уровня: сущность по id и почта -> id; регионы описаны в application.conf
 @Entity
 @Table(name = "users")
-@Builder
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
+@EntityListeners(UserCacheInvalidator.class)
+@Builder(toBuilder = true)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -31,6 +44,7 @@ public class User implements UserDetails {
     @NotBlank
     private String lastName;
 
+    @NaturalId
     @Column(unique = true, nullable = false)
     @NotBlank
     private String email;
@@ -39,7 +53,14 @@ public class User implements UserDetails {
     @NotBlank
     private String password;
 
-    @Column(name = "verification_code")
+    // Хранится только SHA-256 от "почта:код", см. SecretDigest
+    @JsonIgnore
+    @Column(name = "verification_code_hash", unique = true)
+    private byte[] verificationCodeHash;
+
+    // Открытый код живет в памяти только до отправки письма
+    @JsonIgnore
+    @Transient
     private String verificationCode;
 
     @Column(name = "verification_expiration")
@@ -47,6 +68,19 @@ public class User implements UserDetails {
 
     private boolean enabled;
 
+    // null у пользователей, созданных до появления ролей, означает USER
+    @Enumerated(EnumType.STRING)
+    private Role role;
+
+    // Увеличивается при каждом изменении, служит основой ETag; default 0 для существующих строк и пакетной вставки
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    @Transient
+    private boolean accountLocked;
+
     public User(String firstName, String lastName, String email, String password) {
         this.firstName = firstName;
         this.lastName = lastName;
@@ -56,6 +90,9 @@ public class User implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
+        if (role == Role.ADMIN) {
+            return List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        }
         return List.of();
     }
 
@@ -71,7 +108,7 @@ public class User implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return !accountLocked;
     }
 
     @Override
@@ -0,0 +1,14 @@
+package com.vectoredu.backend.repository;
+
+import com.vectoredu.backend.model.LoginAttempt;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LoginAttemptRepository extends JpaRepository<LoginAttempt, String> {
+
+    List<LoginAttempt> findByLockedUntilAfter(LocalDateTime now);
+}
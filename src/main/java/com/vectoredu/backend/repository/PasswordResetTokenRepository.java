@@ -12,9 +12,7 @@ import java.util.Optional;
 @Repository
 public interface PasswordResetTokenRepository extends JpaRepository<PasswordResetToken, Long> {
 
-    Optional<PasswordResetToken> findByToken(String token);
-
-    void deleteByToken(String token);
+    Optional<PasswordResetToken> findByTokenHash(byte[] tokenHash);
 
     @Modifying
     @Transactional
@@ -0,0 +1,13 @@
+package com.vectoredu.backend.repository;
+
+import com.vectoredu.backend.model.User;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface UserBatchRepository {
+
+    // Пакетная вставка одним запросом: IDENTITY-ключи не дают Hibernate группировать INSERT.
+    // Возвращает почты фактически созданных пользователей, уже существующие пропускаются
+    Set<String> insertAll(Collection<User> users);
+}
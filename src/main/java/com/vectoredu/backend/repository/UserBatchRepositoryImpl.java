@@ -0,0 +1,63 @@
+package com.vectoredu.backend.repository;
+
+import com.vectoredu.backend.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+
+public class UserBatchRepositoryImpl implements UserBatchRepository {
+
+    // Колонки передаются массивами, поэтому пачка любого размера уходит одним оператором,
+    // а RETURNING показывает, какие строки не столкнулись с уже существующей почтой
+    private static final String INSERT_SQL = """
+            INSERT INTO users (first_name, last_name, email, password, verification_code_hash, verification_expiration, enabled)
+            SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::bytea[], ?::timestamp[], ?::boolean[])
+            ON CONFLICT (email) DO NOTHING
+            RETURNING email
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public Set<String> insertAll(Collection<User> users) {
+        Set<String> inserted = new HashSet<>();
+        if (users.isEmpty()) {
+            return inserted;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SQL);
+            statement.setArray(1, column(connection, "varchar", users, User::getFirstName));
+            statement.setArray(2, column(connection, "varchar", users, User::getLastName));
+            statement.setArray(3, column(connection, "varchar", users, User::getEmail));
+            statement.setArray(4, column(connection, "varchar", users, User::getPassword));
+            statement.setArray(5, connection.createArrayOf("bytea",
+                    users.stream().map(User::getVerificationCodeHash).toArray(byte[][]::new)));
+            statement.setArray(6, column(connection, "timestamp", users, user -> user.getVerificationCodeExpiresAt() != null
+                    ? Timestamp.valueOf(user.getVerificationCodeExpiresAt())
+                    : null));
+            statement.setArray(7, column(connection, "bool", users, User::isEnabled));
+            return statement;
+        }, resultSet -> {
+            inserted.add(resultSet.getString(1));
+        });
+        return inserted;
+    }
+
+    private static java.sql.Array column(Connection connection, String type, Collection<User> users,
+                                         Function<User, Object> getter) throws SQLException {
+        return connection.createArrayOf(type, users.stream().map(getter).toArray());
+    }
+}
@@ -0,0 +1,15 @@
+package com.vectoredu.backend.repository;
+
+import com.vectoredu.backend.model.User;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    // Поиск по натуральному ключу: почта -> id и сама сущность берутся из кэша второго уровня
+    Optional<User> findByEmail(String email);
+
+    // Поиск по id на основном сервере (findById из JpaRepository читает с реплики) через кэш второго уровня:
+    // загрузчик кэша пользователей не должен вернуть строку, еще не дошедшую до реплики
+    Optional<User> findPrimaryById(Long id);
+}
@@ -0,0 +1,38 @@
+package com.vectoredu.backend.repository;
+
+import com.vectoredu.backend.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+public class UserNaturalIdRepositoryImpl implements UserNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // SUPPORTS присоединяется к транзакции вызывающего: в read-only транзакции чтение идет с реплики,
+    // без транзакции и в пишущей - с основной базы
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<User> findByEmail(String email) {
+        Session session = entityManager.unwrap(Session.class);
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Строка с реплики может отставать: кэш второго уровня читается, но не пополняется ею,
+            // иначе после сброса записи старая версия попала бы и в кэш пользователей
+            session.setCacheMode(CacheMode.GET);
+        }
+        return session.bySimpleNaturalId(User.class).loadOptional(email);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<User> findPrimaryById(Long id) {
+        return Optional.ofNullable(entityManager.find(User.class, id));
+    }
+}
@@ -2,14 +2,30 @@ package com.vectoredu.backend.repository;
 
 import com.vectoredu.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserBatchRepository, UserNaturalIdRepository {
 
-    Optional<User> findByEmail(String email);
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 
-    Optional<User> findByVerificationCode(String verificationCode);
+    @Query("select u.id from User u where u.id in :ids and u.enabled = true")
+    List<Long> findEnabledIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select u.email from User u where u.email in :emails and u.enabled = true")
+    List<String> findEnabledEmails(@Param("emails") Collection<String> emails);
+
+    // Отпечаток всей таблицы: меняется при вставке (max id), удалении (count) и любом изменении (sum version)
+    @Query("""
+            select concat(cast(count(u) as String), '-', cast(coalesce(max(u.id), 0) as String), '-',
+                          cast(coalesce(sum(u.version), 0) as String))
+            from User u
+            """)
+    String findUsersFingerprint();
 }
@@ -6,82 +6,137 @@ import com.vectoredu.backend.dto.request.VerifyUserDto;
 import com.vectoredu.backend.dto.response.LoginResponse;
 import com.vectoredu.backend.model.User;
 import com.vectoredu.backend.repository.UserRepository;
+import com.vectoredu.backend.util.OptimisticRetry;
+import com.vectoredu.backend.util.SecretDigest;
+import com.vectoredu.backend.util.SecretGenerator;
 import com.vectoredu.backend.util.exception.*;
-import com.vectoredu.backend.util.validators.EmailValidator;
-import com.vectoredu.backend.util.validators.PasswordValidator;
 import jakarta.mail.MessagingException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.Random;
-
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Транзакции открываются только вокруг работы с базой. Хэширование BCrypt, подпись JWT
+ * и отправка писем выполняются вне транзакции, чтобы не держать соединение из пула.
+ * Одиночные выборки перед ними выполняются в отдельной read-only транзакции и читают с реплики.
+ */
 @Slf4j
 @Service
-@Transactional
-@RequiredArgsConstructor
 public class AuthenticationService {
+    private static final String VERIFICATION_EMAIL_SUBJECT = "Account Verification";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
     private final JwtService jwtService;
-    private final EmailValidator emailValidator;
-    private final PasswordValidator passwordValidator;
     private final PasswordService passwordService;  // Сервис для работы с паролем
+    private final LoginAttemptService loginAttemptService;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final SecretGenerator secretGenerator;
+
+    // Хэш-заглушка для сравнения пароля, когда настоящего хэша нет. Вычисляется при создании сервиса,
+    // иначе первый вход неизвестного пользователя стоил бы два BCrypt и выделялся по времени
+    private final String dummyPasswordHash;
+
+    public AuthenticationService(
+            UserRepository userRepository,
+            PasswordEncoder passwordEncoder,
+            EmailService emailService,
+            JwtService jwtService,
+            PasswordService passwordService,
+            LoginAttemptService loginAttemptService,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("readOnlyTransactionTemplate") TransactionTemplate readOnlyTransactionTemplate,
+            SecretGenerator secretGenerator
+    ) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.emailService = emailService;
+        this.jwtService = jwtService;
+        this.passwordService = passwordService;
+        this.loginAttemptService = loginAttemptService;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = readOnlyTransactionTemplate;
+        this.secretGenerator = secretGenerator;
+        this.dummyPasswordHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    }
 
-    // Регистрация пользователя
+    // Регистрация пользователя, ввод проверяется в контроллере через @Valid
     public User signup(RegisterUserDto input) {
-        validateSignupInput(input);
-        checkUserExistence(input);
         User userToCreate = createUser(input);
-        sendVerificationEmail(userToCreate);
-        return saveUser(userToCreate);
+        User savedUser = transactionTemplate.execute(status -> {
+            checkUserExistence(input);
+            return saveUser(userToCreate);
+        });
+        sendVerificationEmail(savedUser);
+        return savedUser;
     }
 
     // Аутентификация пользователя
     public LoginResponse authenticate(LoginUserDto input) {
-        User user = findUserByEmail(input.getEmail());
-        checkUserEnabled(user);
-        try {
-            authenticateUser(input);
-        } catch (BadCredentialsException e) {
-            throw new UnauthorizedException("Данные введены некорректно");
+        checkAccountNotLocked(input.getEmail());
+
+        // Транзакция закрывается до сравнения BCrypt и подписи токенов
+        Optional<User> userOptional = readOnlyTransactionTemplate.execute(status ->
+                userRepository.findByEmail(input.getEmail()));
+        if (userOptional.isEmpty()) {
+            matchDummyPassword(input);
+            throw new UserException("Пользователь не найден");
+        }
+
+        User user = userOptional.get();
+        if (!user.isEnabled()) {
+            matchDummyPassword(input);
+            throw new VerificationException("Пользователь не верифицирован");
         }
+        checkPassword(user, input);
 
-        String jwtToken = generateJwtToken(user);
-        String refreshToken = generateRefreshToken(user);
+        JwtService.IssuedToken jwtToken = generateJwtToken(user);
+        JwtService.IssuedToken refreshToken = generateRefreshToken(user);
 
         return createLoginResponse(jwtToken, refreshToken);
     }
 
     // Обновление токена доступа
     public String refreshAccessToken(String refreshToken) {
-        String email = jwtService.extractUsername(refreshToken);
-        User user = findUserByEmail(email);
+        String subject = jwtService.extractSubject(refreshToken);
+        User user = readOnlyTransactionTemplate.execute(status -> findUserBySubject(subject));
         validateRefreshToken(refreshToken, user);
-        return jwtService.generateToken(user);
+        return jwtService.generateToken(user).token();
     }
 
-    // Верификация пользователя
+    // Верификация пользователя. Уже подтвержденный аккаунт считается успехом только при повторе после
+    // конфликта версий, когда код этого запроса уже прошел проверку на предыдущей попытке
     public void verifyUser(VerifyUserDto input) {
-        User user = findUserByEmail(input.getEmail());
-        validateVerificationCode(user, input);
-        enableUser(user);
+        AtomicBoolean codeAccepted = new AtomicBoolean();
+        OptimisticRetry.run(() -> transactionTemplate.executeWithoutResult(status -> {
+            User user = findUserByEmail(input.getEmail());
+            if (codeAccepted.get() && user.isEnabled()) {
+                return;
+            }
+            checkUserAlreadyVerified(user);
+            validateVerificationCode(user, input);
+            codeAccepted.set(true);
+            enableUser(user);
+        }));
     }
 
     // Повторная отправка кода подтверждения
     public void resendVerificationCode(String email) {
-        User user = findUserByEmail(email);
-        checkUserAlreadyVerified(user);
-        updateUserVerificationCode(user);
+        User user = OptimisticRetry.call(() -> transactionTemplate.execute(status -> {
+            User existingUser = findUserByEmail(email);
+            checkUserAlreadyVerified(existingUser);
+            updateUserVerificationCode(existingUser);
+            return existingUser;
+        }));
         sendVerificationEmail(user);
     }
 
@@ -95,24 +150,6 @@ public class AuthenticationService {
         passwordService.resetPassword(token, newPassword);
     }
 
-    // Валидация ввода при регистрации
-    private void validateSignupInput(RegisterUserDto input) {
-        if(input.getFirstName().isBlank()){
-            throw new ValidationException("Поле с именем не может быть пустым");
-        }
-
-        if(input.getLastName().isBlank()){
-            throw new ValidationException("Поле с фамилией не может быть пустым");
-        }
-
-        if (!emailValidator.isValid(input.getEmail(), null)) {
-            throw new ValidationException("Не верный формат email");
-        }
-        if (!passwordValidator.isValid(input.getPassword(), null)) {
-            throw new ValidationException("Пароль должен содержать хотя бы одну заглавную букву, одну цифру, быть не короче 8 и не длиннее 20 символов");
-        }
-    }
-
     // Проверка существования пользователя
     private void checkUserExistence(RegisterUserDto input) {
         Optional<User> userOptional = userRepository.findByEmail(input.getEmail());
@@ -135,48 +172,72 @@ public class AuthenticationService {
 
     private User createUser(RegisterUserDto input) {
         String encodedPassword = passwordEncoder.encode(input.getPassword());
-        return User.builder()
+        User user = User.builder()
                 .firstName(input.getFirstName())
                 .lastName(input.getLastName())
                 .email(input.getEmail())
                 .password(encodedPassword)
-                .verificationCode(generateVerificationCode())
-                .verificationCodeExpiresAt(LocalDateTime.now().plusMinutes(15))
                 .enabled(false)
                 .build();
+        assignVerificationCode(user);
+        return user;
+    }
+
+    // Новый код подтверждения: в сущность пишется дайджест, открытый код остается для письма
+    public void assignVerificationCode(User user) {
+        String code = secretGenerator.verificationCode();
+        user.setVerificationCode(code);
+        user.setVerificationCodeHash(SecretDigest.verificationCode(user.getEmail(), code));
+        user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(15));
     }
 
     private User saveUser(User userToCreate) {
         return userRepository.save(userToCreate);
     }
 
+    // В токенах, выпущенных до перехода на id, subject - почта
+    private User findUserBySubject(String subject) {
+        Long id = JwtService.userId(subject);
+        return (id != null ? userRepository.findById(id) : userRepository.findByEmail(subject))
+                .orElseThrow(() -> new UserException("Пользователь не найден"));
+    }
+
     private User findUserByEmail(String email) {
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new UserException("Пользователь не найден"));
     }
 
-    private void checkUserEnabled(User user) {
-        if (!user.isEnabled()) {
-            throw new VerificationException("Пользователь не верифицирован");
+    private void checkAccountNotLocked(String email) {
+        if (loginAttemptService.isBlocked(email)) {
+            throw new AccountLockedException("Слишком много неудачных попыток входа, попробуйте позже");
         }
     }
 
-    private void authenticateUser(LoginUserDto input) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(input.getEmail(), input.getPassword())
-        );
+    private void checkPassword(User user, LoginUserDto input) {
+        if (!passwordEncoder.matches(input.getPassword(), user.getPassword())) {
+            loginAttemptService.loginFailed(input.getEmail());
+            throw new UnauthorizedException("Данные введены некорректно");
+        }
+        loginAttemptService.loginSucceeded(input.getEmail());
     }
 
-    private String generateJwtToken(User user) {
+    // Сравнение с заглушкой выравнивает время ответа для неизвестных и неверифицированных пользователей
+    private void matchDummyPassword(LoginUserDto input) {
+        passwordEncoder.matches(input.getPassword(), dummyPasswordHash);
+    }
+
+    private JwtService.IssuedToken generateJwtToken(User user) {
         return jwtService.generateToken(user);
     }
 
-    private String generateRefreshToken(User user) {
+    private JwtService.IssuedToken generateRefreshToken(User user) {
         return jwtService.generateRefreshToken(user);
     }
 
-    private LoginResponse createLoginResponse(String jwtToken, String refreshToken) {
-        return new LoginResponse(jwtToken, jwtService.getExpirationTime(), refreshToken, jwtService.getRefreshExpirationTime());
+    // Сроки берутся из выпущенных токенов, а не вычисляются заново
+    private LoginResponse createLoginResponse(JwtService.IssuedToken jwtToken, JwtService.IssuedToken refreshToken) {
+        return new LoginResponse(jwtToken.token(), jwtToken.expiresAt(),
+                refreshToken.token(), refreshToken.expiresAt(), jwtToken.refreshAfter());
     }
 
     private void validateRefreshToken(String refreshToken, User user) {
@@ -190,7 +251,8 @@ public class AuthenticationService {
         if (user.getVerificationCodeExpiresAt().isBefore(LocalDateTime.now())) {
             throw new ValidationException("Время подтверждения истекло");
         }
-        if (!user.getVerificationCode().equals(input.getVerificationCode())) {
+        byte[] digest = SecretDigest.verificationCode(user.getEmail(), input.getVerificationCode());
+        if (!SecretDigest.matches(user.getVerificationCodeHash(), digest)) {
             throw new ValidationException("Неверный код подтверждения");
         }
 
@@ -198,7 +260,7 @@ public class AuthenticationService {
 
     private void enableUser(User user) {
         user.setEnabled(true);
-        user.setVerificationCode(null);
+        user.setVerificationCodeHash(null);
         user.setVerificationCodeExpiresAt(null);
         userRepository.save(user);
     }
@@ -210,16 +272,21 @@ public class AuthenticationService {
     }
 
     private void updateUserVerificationCode(User user) {
-        user.setVerificationCode(generateVerificationCode());
-        user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(15));
+        assignVerificationCode(user);
         userRepository.save(user);
     }
 
     private void sendVerificationEmail(User user) {
-        String subject = "Account Verification";
         String verificationCode = "VERIFICATION CODE " + user.getVerificationCode();
         String htmlMessage = generateVerificationEmailContent(verificationCode);
-        sendEmail(user, subject, htmlMessage);
+        sendEmail(user, VERIFICATION_EMAIL_SUBJECT, htmlMessage);
+    }
+
+    // Постановка письма с кодом подтверждения в очередь, используется при массовом импорте
+    public void queueVerificationEmail(User user) {
+        String verificationCode = "VERIFICATION CODE " + user.getVerificationCode();
+        String htmlMessage = generateVerificationEmailContent(verificationCode);
+        emailService.sendVerificationEmailAsync(user.getEmail(), VERIFICATION_EMAIL_SUBJECT, htmlMessage);
     }
 
     private void sendEmail(User user, String subject, String htmlMessage) {
@@ -244,10 +311,4 @@ public class AuthenticationService {
                 + "</body>"
                 + "</html>";
     }
-
-    public String generateVerificationCode() {
-        Random random = new Random();
-        int code = random.nextInt(900000) + 100000;
-        return String.valueOf(code);
-    }
 }
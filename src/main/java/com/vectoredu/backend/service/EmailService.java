@@ -2,11 +2,15 @@ package com.vectoredu.backend.service;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+@Slf4j
 @Service
 public class EmailService {
     @Autowired
@@ -23,5 +27,15 @@ public class EmailService {
         emailSender.send(message);
     }
 
+    // Отправка в пуле mailExecutor, ошибки только логируются
+    @Async("mailExecutor")
+    public void sendVerificationEmailAsync(String to, String subject, String text) {
+        try {
+            sendVerificationEmail(to, subject, text);
+        } catch (MessagingException | MailException e) {
+            log.error("Ошибка при отправке email на {}", to, e);
+        }
+    }
+
 
 }
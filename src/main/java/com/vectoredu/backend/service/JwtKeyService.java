@@ -0,0 +1,237 @@
+package com.vectoredu.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Ключи подписи JWT.
+ * <p>
+ * Если задан {@code security.jwt.keys-location}, ключи читаются из JWK Set файла (RSA или Ed25519)
+ * и перечитываются при его изменении: подписывает ключ {@code security.jwt.signing-key-id} или первый
+ * закрытый ключ файла, проверяют все. Так ротацию выполняет оператор: сначала добавляет новый ключ,
+ * после истечения кэша JWKS переключает подпись, а старый ключ удаляет после истечения его токенов.
+ * <p>
+ * Без файла ключи Ed25519 генерируются в памяти и ротируются каждые {@code security.jwt.rotation-interval}.
+ * Новый ключ публикуется в JWKS заранее и начинает подписывать только через {@code security.jwt.jwks-max-age},
+ * старый остается для проверки, пока не истекут выпущенные им токены. Такие ключи свои у каждого
+ * экземпляра и теряются при перезапуске, поэтому этот режим включается только явно
+ * ({@code security.jwt.generated-keys-allowed} в профилях dev и test), иначе запуск без файла ключей прерывается.
+ */
+@Slf4j
+@Service
+public class JwtKeyService {
+
+    /**
+     * Ключ подписи: {@code privateKey} равен null у ключей, оставленных только для проверки.
+     */
+    public record JwtKey(String id, PrivateKey privateKey, PublicKey publicKey, SignatureAlgorithm algorithm,
+                         Instant createdAt, Instant activatesAt) {
+    }
+
+    // Снимок ключей заменяется целиком, читатели не блокируются; signingKey задан только для ключей из файла
+    private record KeySet(List<JwtKey> keys, Map<String, JwtKey> byId, JwtKey signingKey, String jwks) {
+    }
+
+    @Value("${security.jwt.keys-location:}")
+    private String keysLocation;
+
+    @Value("${security.jwt.generated-keys-allowed:false}")
+    private boolean generatedKeysAllowed;
+
+    @Value("${security.jwt.signing-key-id:}")
+    private String signingKeyId;
+
+    @Value("${security.jwt.rotation-interval}")
+    private long rotationIntervalMillis;
+
+    @Value("${security.jwt.jwks-max-age}")
+    private long jwksMaxAgeMillis;
+
+    @Value("${security.jwt.refresh-token-expiration-time}")
+    private long maxTokenLifetimeMillis;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Clock clock = Clock.systemUTC();
+
+    private volatile KeySet keySet = new KeySet(List.of(), Map.of(), null, "{\"keys\":[]}");
+    private volatile long keysFileModified = -1;
+
+    @PostConstruct
+    public void init() {
+        if (keysLocation.isEmpty()) {
+            // Токен, подписанный одним узлом, не проверится на другом, а перезапуск отзовет все выданные токены
+            if (!generatedKeysAllowed) {
+                throw new IllegalStateException("Не задан security.jwt.keys-location (JWT_KEYS_LOCATION): "
+                        + "ключи JWT в памяти допустимы только в профилях dev и test");
+            }
+            log.warn("security.jwt.keys-location не задан: ключи JWT генерируются в памяти и не переживут перезапуск");
+        }
+        refresh();
+    }
+
+    /**
+     * Ключ, которым подписываются новые токены: самый новый из уже активных.
+     */
+    public JwtKey signingKey() {
+        KeySet current = keySet;
+        if (current.signingKey() != null) {
+            return current.signingKey();
+        }
+        // Сгенерированные ключи упорядочены по времени активации
+        Instant now = clock.instant();
+        for (int i = current.keys().size() - 1; i >= 0; i--) {
+            JwtKey key = current.keys().get(i);
+            if (!key.activatesAt().isAfter(now)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("Нет ключа для подписи JWT");
+    }
+
+    /**
+     * Открытый ключ для проверки подписи по kid из заголовка токена или null, если ключ неизвестен.
+     */
+    public JwtKey verificationKey(String id) {
+        return keySet.byId().get(id);
+    }
+
+    /**
+     * Открытые ключи в формате JWK Set (RFC 7517), включая заранее опубликованные.
+     */
+    public String jwks() {
+        return keySet.jwks();
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.keys-refresh-interval}", initialDelayString = "${security.jwt.keys-refresh-interval}")
+    public void refresh() {
+        if (keysLocation.isEmpty()) {
+            rotate();
+        } else {
+            reloadIfModified();
+        }
+    }
+
+    private void rotate() {
+        Instant now = clock.instant();
+        List<JwtKey> keys = new ArrayList<>(keySet.keys());
+        boolean changed = false;
+        if (keys.isEmpty()) {
+            keys.add(generate(now, now));
+            changed = true;
+        } else if (!keys.get(keys.size() - 1).createdAt().plusMillis(rotationIntervalMillis).isAfter(now)) {
+            // Новый ключ подписывает только после того, как клиенты гарантированно перечитали JWKS
+            keys.add(generate(now, now.plusMillis(jwksMaxAgeMillis)));
+            changed = true;
+        }
+        // Ключ перестает подписывать, когда активируется следующий, и нужен, пока живут его токены
+        while (keys.size() > 1 && !keys.get(1).activatesAt().plusMillis(maxTokenLifetimeMillis).isAfter(now)) {
+            log.info("Ключ JWT {} выведен из проверки", keys.remove(0).id());
+            changed = true;
+        }
+        if (changed) {
+            keySet = snapshot(keys, null);
+        }
+    }
+
+    private JwtKey generate(Instant createdAt, Instant activatesAt) {
+        KeyPair keyPair = Jwks.CRV.Ed25519.keyPair().build();
+        // kid передается в каждом токене: 8 символов отпечатка (48 бит) различают несколько одновременных ключей
+        String id = Jwks.builder().key(keyPair.getPublic()).idFromThumbprint().build().getId().substring(0, 8);
+        log.info("Сгенерирован ключ JWT {}, подписывает с {}", id, activatesAt);
+        return new JwtKey(id, keyPair.getPrivate(), keyPair.getPublic(), Jwts.SIG.EdDSA, createdAt, activatesAt);
+    }
+
+    private void reloadIfModified() {
+        Path path = Path.of(keysLocation);
+        try {
+            long modified = Files.getLastModifiedTime(path).toMillis();
+            if (modified == keysFileModified) {
+                return;
+            }
+            List<JwtKey> keys = readKeys(Files.readString(path));
+            JwtKey signingKey = keys.stream()
+                    .filter(key -> key.privateKey() != null)
+                    .filter(key -> signingKeyId.isEmpty() || key.id().equals(signingKeyId))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("В " + keysLocation + " нет закрытого ключа для подписи"));
+            keySet = snapshot(keys, signingKey);
+            keysFileModified = modified;
+            log.info("Ключи JWT загружены из {}: {}, подписывает {}", keysLocation, keySet.byId().keySet(), signingKey.id());
+        } catch (IOException | RuntimeException e) {
+            // При старте ошибка фатальна, при перечитывании остаются прежние ключи
+            if (keySet.keys().isEmpty()) {
+                throw new IllegalStateException("Не удалось загрузить ключи JWT из " + keysLocation, e);
+            }
+            log.error("Не удалось перечитать ключи JWT из {}, используются прежние", keysLocation, e);
+        }
+    }
+
+    private List<JwtKey> readKeys(String json) throws IOException {
+        List<JwtKey> keys = new ArrayList<>();
+        for (JsonNode node : objectMapper.readTree(json).path("keys")) {
+            Jwk<?> jwk = Jwks.parser().build().parse(node.toString());
+            PrivateKey privateKey = null;
+            PublicKey publicKey;
+            if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                privateKey = privateJwk.toKeyPair().getPrivate();
+                publicKey = privateJwk.toKeyPair().getPublic();
+            } else if (jwk instanceof PublicJwk<?> publicJwk) {
+                publicKey = publicJwk.toKey();
+            } else {
+                throw new IllegalStateException("Для подписи JWT допустимы только асимметричные ключи");
+            }
+            String id = jwk.getId() != null ? jwk.getId()
+                    : Jwks.builder().key(publicKey).idFromThumbprint().build().getId();
+            keys.add(new JwtKey(id, privateKey, publicKey, algorithm(publicKey), Instant.EPOCH, Instant.EPOCH));
+        }
+        return keys;
+    }
+
+    private static SignatureAlgorithm algorithm(PublicKey publicKey) {
+        return switch (publicKey.getAlgorithm()) {
+            case "RSA" -> Jwts.SIG.RS256;
+            case "EdDSA", "Ed25519", "Ed448" -> Jwts.SIG.EdDSA;
+            default -> throw new IllegalStateException("Неподдерживаемый тип ключа JWT: " + publicKey.getAlgorithm());
+        };
+    }
+
+    private static KeySet snapshot(List<JwtKey> keys, JwtKey signingKey) {
+        Map<String, JwtKey> byId = new HashMap<>();
+        for (JwtKey key : keys) {
+            byId.put(key.id(), key);
+        }
+        String jwks = keys.stream()
+                .map(key -> Jwks.json(Jwks.builder().key(key.publicKey())
+                        .id(key.id())
+                        .algorithm(key.algorithm().getId())
+                        .publicKeyUse("sig")
+                        .build()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        return new KeySet(List.copyOf(keys), Map.copyOf(byId), signingKey, jwks);
+    }
+}
@@ -1,25 +1,57 @@
 package com.vectoredu.backend.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vectoredu.backend.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
-    @Value("${security.jwt.secret-key}")
+    // Дополнительные claims попадают в каждый запрос, поэтому их объем ограничен
+    private static final int MAX_EXTRA_CLAIMS = 8;
+    private static final int MAX_EXTRA_CLAIMS_BYTES = 1024;
+    // Крупные claims сжимаются DEFLATE (заголовок zip), мелкие от сжатия только растут
+    private static final int COMPRESSION_THRESHOLD_BYTES = 256;
+    private static final Set<String> REGISTERED_CLAIMS = Set.of("iss", "sub", "aud", "exp", "nbf", "iat", "jti");
+
+    private static final double REFRESH_AFTER_MIN = 0.75;
+    private static final double REFRESH_AFTER_MAX = 0.9;
+
+    /**
+     * Выпущенный токен. {@code expiresAt} совпадает с его claim exp, {@code refreshAfter} - момент,
+     * после которого клиенту стоит обновить токен заранее.
+     */
+    public record IssuedToken(String token, Instant expiresAt, Instant refreshAfter) {
+    }
+
+    private final JwtKeyService jwtKeyService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Общий секрет HS256 нужен только для проверки токенов, выпущенных до перехода на асимметричные ключи
+    @Value("${security.jwt.secret-key:}")
     private String secretKey;
 
     @Value("${security.jwt.expiration-time}")
@@ -28,16 +60,31 @@ public class JwtService {
     @Value("${security.jwt.refresh-token-expiration-time}")
     private long refreshTokenExpirationMillis;
 
-    private Instant jwtExpiration;
-    private Instant refreshTokenExpiration;
+    private JwtParser parser;
 
     @PostConstruct
     public void init() {
-        this.jwtExpiration = Instant.now().plusMillis(jwtExpirationMillis);
-        this.refreshTokenExpiration = Instant.now().plusMillis(refreshTokenExpirationMillis);
-    }
-
-    public String extractUsername(String token) {
+        Key legacyKey = secretKey.isEmpty() ? null : Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        // Ключ проверки выбирается по kid; тип ключа должен соответствовать alg, поэтому подменить RS256/EdDSA на HS256 нельзя
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        String keyId = header.getKeyId();
+                        if (keyId == null && legacyKey != null) {
+                            return legacyKey;
+                        }
+                        JwtKeyService.JwtKey key = keyId == null ? null : jwtKeyService.verificationKey(keyId);
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Неизвестный ключ подписи");
+                        }
+                        return key.publicKey();
+                    }
+                })
+                .build();
+    }
+
+    public String extractSubject(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
@@ -46,77 +93,109 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails.getUsername(), jwtExpirationMillis);
-    }
-
-    public String generateToken(Map<String, Object> extraClaims, String email, long expirationMillis) {
-        Instant expiration = Instant.now().plusMillis(expirationMillis);
-        return buildToken(extraClaims, email, expiration);
-    }
-
-    public String generateRefreshToken(UserDetails userDetails) {
-        Instant expiration = Instant.now().plusMillis(refreshTokenExpirationMillis);
-        return buildToken(new HashMap<>(), userDetails.getUsername(), expiration);
-    }
-
-    private String buildToken(
-            Map<String, Object> extraClaims,
-            String email,
-            Instant expiration
-    ) {
-        return Jwts
-                .builder()
-                .setClaims(extraClaims)
-                .setSubject(email)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(Date.from(expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
-                .compact();
-    }
-
-    public Instant getExpirationTime() {
-        return jwtExpiration;
-    }
-
-    public Instant getRefreshExpirationTime() {
-        return refreshTokenExpiration;
-    }
-
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    public boolean isRefreshTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isRefreshTokenExpired(token);
+    public IssuedToken generateToken(User user) {
+        return generateToken(Map.of(), subject(user), jwtExpirationMillis);
     }
 
-    public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public IssuedToken generateToken(Map<String, Object> extraClaims, String subject, long expirationMillis) {
+        return buildToken(extraClaims, subject, expirationMillis);
     }
 
-    public boolean isRefreshTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public IssuedToken generateRefreshToken(User user) {
+        return buildToken(Map.of(), subject(user), refreshTokenExpirationMillis);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Subject токена - id пользователя: короче почты и не меняется вместе с ней.
+     */
+    public static String subject(User user) {
+        return String.valueOf(user.getId());
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Id пользователя из subject или null для токенов, выпущенных до перехода на id, где subject - почта.
+     */
+    public static Long userId(String subject) {
+        if (subject == null || subject.isEmpty() || subject.length() > 19) {
+            return null;
+        }
+        for (int i = 0; i < subject.length(); i++) {
+            if (subject.charAt(i) < '0' || subject.charAt(i) > '9') {
+                return null;
+            }
+        }
+        return Long.parseLong(subject);
     }
 
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Токен передается в каждом запросе, поэтому в нем только kid, sub и exp; iat не используется и не пишется
+    private IssuedToken buildToken(
+            Map<String, Object> extraClaims,
+            String subject,
+            long lifetimeMillis
+    ) {
+        int extraClaimsBytes = checkExtraClaims(extraClaims);
+        Instant issuedAt = Instant.now();
+        // exp хранится в секундах, поэтому срок сразу округляется, чтобы совпадать с токеном
+        Instant expiration = issuedAt.plusMillis(lifetimeMillis).truncatedTo(ChronoUnit.SECONDS);
+        JwtKeyService.JwtKey key = jwtKeyService.signingKey();
+        JwtBuilder builder = Jwts
+                .builder()
+                .header().keyId(key.id()).and()
+                .claims(extraClaims)
+                .subject(subject)
+                .expiration(Date.from(expiration));
+        if (extraClaimsBytes > COMPRESSION_THRESHOLD_BYTES) {
+            builder.compressWith(Jwts.ZIP.DEF);
+        }
+        String token = builder.signWith(key.privateKey(), key.algorithm()).compact();
+        return new IssuedToken(token, expiration, refreshAfter(issuedAt, expiration));
+    }
+
+    // Случайная точка между 75% и 90% срока жизни: клиенты, вошедшие одновременно, обновляются вразнобой
+    private static Instant refreshAfter(Instant issuedAt, Instant expiration) {
+        long lifetimeMillis = Duration.between(issuedAt, expiration).toMillis();
+        double fraction = ThreadLocalRandom.current().nextDouble(REFRESH_AFTER_MIN, REFRESH_AFTER_MAX);
+        return issuedAt.plusMillis((long) (lifetimeMillis * fraction));
+    }
+
+    // Дополнительные claims ограничены по количеству и размеру и не могут подменить зарегистрированные
+    private int checkExtraClaims(Map<String, Object> extraClaims) {
+        if (extraClaims.isEmpty()) {
+            return 0;
+        }
+        if (extraClaims.size() > MAX_EXTRA_CLAIMS) {
+            throw new IllegalArgumentException("Слишком много дополнительных claims: " + extraClaims.size());
+        }
+        for (String name : extraClaims.keySet()) {
+            if (REGISTERED_CLAIMS.contains(name)) {
+                throw new IllegalArgumentException("Claim " + name + " задается только JwtService");
+            }
+        }
+        int size;
+        try {
+            size = objectMapper.writeValueAsBytes(extraClaims).length;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Дополнительные claims не сериализуются в JSON", e);
+        }
+        if (size > MAX_EXTRA_CLAIMS_BYTES) {
+            throw new IllegalArgumentException("Дополнительные claims больше " + MAX_EXTRA_CLAIMS_BYTES + " байт");
+        }
+        return size;
+    }
+
+    /**
+     * Токен выдан этому пользователю. Подпись и срок действия проверяет парсер в {@link #extractAllClaims}.
+     */
+    public boolean isIssuedTo(Claims claims, User user) {
+        String subject = claims.getSubject();
+        return subject != null && (subject.equals(subject(user)) || subject.equals(user.getEmail()));
+    }
+
+    public boolean isRefreshTokenValid(String token, User user) {
+        return isIssuedTo(extractAllClaims(token), user);
+    }
+
+    public Claims extractAllClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 }
-
@@ -0,0 +1,224 @@
+package com.vectoredu.backend.service;
+
+import com.vectoredu.backend.model.LoginAttempt;
+import com.vectoredu.backend.repository.LoginAttemptRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Учет неудачных попыток входа.
+ * <p>
+ * Решение о блокировке принимается по скользящему окну в памяти, а состояние
+ * периодически сбрасывается в таблицу {@code login_attempts} одной транзакцией:
+ * сколько бы попыток ни пришлось на аккаунт между сбросами, в базу уйдет одна запись,
+ * а таблица {@code users} не изменяется вовсе.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginAttemptService {
+    private final LoginAttemptRepository loginAttemptRepository;
+
+    @Value("${security.login.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${security.login.attempt-window}")
+    private long attemptWindowMillis;
+
+    @Value("${security.login.lock-duration}")
+    private long lockDurationMillis;
+
+    private final Map<String, AttemptWindow> windows = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    public boolean isBlocked(String email) {
+        AttemptWindow window = windows.get(email);
+        return window != null && window.isLocked(System.currentTimeMillis());
+    }
+
+    public void loginFailed(String email) {
+        long now = System.currentTimeMillis();
+        windows.compute(email, (key, window) -> {
+            AttemptWindow current = window != null ? window : new AttemptWindow(maxAttempts);
+            if (current.recordFailure(now, attemptWindowMillis, lockDurationMillis)) {
+                log.warn("Аккаунт {} заблокирован после {} неудачных попыток входа", key, maxAttempts);
+            }
+            return current;
+        });
+        dirty.add(email);
+    }
+
+    public void loginSucceeded(String email) {
+        if (windows.remove(email) != null) {
+            dirty.add(email);
+        }
+    }
+
+    // Сброс накопленных изменений в базу
+    @Scheduled(fixedDelayString = "${security.login.flush-interval}")
+    @Transactional
+    public void flush() {
+        long now = System.currentTimeMillis();
+        evictIdleWindows(now);
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<String> emails = new ArrayList<>(dirty);
+        List<LoginAttempt> snapshots = new ArrayList<>();
+        List<String> cleared = new ArrayList<>();
+        for (String email : emails) {
+            // Флаг снимается до снимка: попытка, пришедшая после, снова пометит аккаунт
+            dirty.remove(email);
+            AttemptWindow window = windows.get(email);
+            LoginAttempt snapshot = window != null ? window.snapshot(email, now, attemptWindowMillis) : null;
+            if (snapshot != null) {
+                snapshots.add(snapshot);
+            } else {
+                cleared.add(email);
+            }
+        }
+
+        try {
+            persist(snapshots, cleared);
+        } catch (RuntimeException e) {
+            dirty.addAll(emails);
+            throw e;
+        }
+    }
+
+    // Восстановление действующих блокировок после рестарта
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreLockouts() {
+        loginAttemptRepository.findByLockedUntilAfter(LocalDateTime.now()).forEach(attempt ->
+                windows.putIfAbsent(attempt.getEmail(), AttemptWindow.lockedUntil(maxAttempts, toMillis(attempt.getLockedUntil())))
+        );
+    }
+
+    private void evictIdleWindows(long now) {
+        for (String email : windows.keySet()) {
+            AttemptWindow remaining = windows.computeIfPresent(email,
+                    (key, window) -> window.isIdle(now, attemptWindowMillis) ? null : window);
+            if (remaining == null) {
+                dirty.add(email);
+            }
+        }
+    }
+
+    private void persist(List<LoginAttempt> snapshots, List<String> cleared) {
+        if (!snapshots.isEmpty()) {
+            Map<String, LoginAttempt> existing = loginAttemptRepository
+                    .findAllById(snapshots.stream().map(LoginAttempt::getEmail).toList())
+                    .stream()
+                    .collect(Collectors.toMap(LoginAttempt::getEmail, Function.identity()));
+
+            List<LoginAttempt> created = new ArrayList<>();
+            for (LoginAttempt snapshot : snapshots) {
+                LoginAttempt attempt = existing.get(snapshot.getEmail());
+                if (attempt == null) {
+                    created.add(snapshot);
+                    continue;
+                }
+                attempt.setFailedAttempts(snapshot.getFailedAttempts());
+                attempt.setLastFailureAt(snapshot.getLastFailureAt());
+                attempt.setLockedUntil(snapshot.getLockedUntil());
+            }
+            loginAttemptRepository.saveAll(created);
+        }
+        if (!cleared.isEmpty()) {
+            loginAttemptRepository.deleteAllByIdInBatch(cleared);
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    /**
+     * Кольцевой буфер времени последних неудачных попыток одного аккаунта.
+     */
+    private static final class AttemptWindow {
+        private final long[] failures;
+        private int size;
+        private int next;
+        private long lastFailureAt;
+        private long lockedUntil;
+
+        AttemptWindow(int capacity) {
+            this.failures = new long[Math.max(capacity, 1)];
+        }
+
+        static AttemptWindow lockedUntil(int capacity, long lockedUntil) {
+            AttemptWindow window = new AttemptWindow(capacity);
+            window.lockedUntil = lockedUntil;
+            window.lastFailureAt = lockedUntil;
+            return window;
+        }
+
+        synchronized boolean isLocked(long now) {
+            return now < lockedUntil;
+        }
+
+        synchronized boolean recordFailure(long now, long windowMillis, long lockMillis) {
+            if (now < lockedUntil) {
+                return false;
+            }
+            evictOlderThan(now - windowMillis);
+            failures[next] = now;
+            next = (next + 1) % failures.length;
+            size = Math.min(size + 1, failures.length);
+            lastFailureAt = now;
+
+            if (size == failures.length) {
+                lockedUntil = now + lockMillis;
+                size = 0;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized boolean isIdle(long now, long windowMillis) {
+            return now >= lockedUntil && lastFailureAt <= now - windowMillis;
+        }
+
+        synchronized LoginAttempt snapshot(String email, long now, long windowMillis) {
+            if (isIdle(now, windowMillis)) {
+                return null;
+            }
+            evictOlderThan(now - windowMillis);
+            return new LoginAttempt(
+                    email,
+                    size,
+                    toDateTime(lastFailureAt),
+                    now < lockedUntil ? toDateTime(lockedUntil) : null
+            );
+        }
+
+        private void evictOlderThan(long cutoff) {
+            while (size > 0 && failures[(next - size + failures.length) % failures.length] <= cutoff) {
+                size--;
+            }
+        }
+    }
+}
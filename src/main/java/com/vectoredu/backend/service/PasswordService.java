@@ -4,58 +4,89 @@ import com.vectoredu.backend.model.PasswordResetToken;
 import com.vectoredu.backend.model.User;
 import com.vectoredu.backend.repository.PasswordResetTokenRepository;
 import com.vectoredu.backend.repository.UserRepository;
+import com.vectoredu.backend.util.OptimisticRetry;
+import com.vectoredu.backend.util.SecretDigest;
+import com.vectoredu.backend.util.SecretGenerator;
 import com.vectoredu.backend.util.exception.UserException;
 import com.vectoredu.backend.util.exception.ValidationException;
 import com.vectoredu.backend.util.validators.PasswordValidator;
 import jakarta.mail.MessagingException;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Slf4j
 @Service
-@Transactional
-@RequiredArgsConstructor
 public class PasswordService {
     private final PasswordEncoder passwordEncoder;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final EmailService emailService;
     private final UserRepository userRepository;
     private final PasswordValidator passwordValidator;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final SecretGenerator secretGenerator;
+
+    public PasswordService(
+            PasswordEncoder passwordEncoder,
+            PasswordResetTokenRepository passwordResetTokenRepository,
+            EmailService emailService,
+            UserRepository userRepository,
+            PasswordValidator passwordValidator,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("readOnlyTransactionTemplate") TransactionTemplate readOnlyTransactionTemplate,
+            SecretGenerator secretGenerator
+    ) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordResetTokenRepository = passwordResetTokenRepository;
+        this.emailService = emailService;
+        this.userRepository = userRepository;
+        this.passwordValidator = passwordValidator;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransactionTemplate = readOnlyTransactionTemplate;
+        this.secretGenerator = secretGenerator;
+    }
 
     public void requestPasswordReset(String email) {
-        User user = userRepository.findByEmail(email)
+        // Поиск в read-only транзакции, запись токена в отдельной, письмо вне транзакций
+        User user = readOnlyTransactionTemplate.execute(status -> userRepository.findByEmail(email))
                 .orElseThrow(() -> new UserException("Пользователь не найден"));
 
         validateUserForPasswordReset(user);
 
-        passwordResetTokenRepository.deleteByUser(user);
-
-        String resetToken = generatePasswordResetToken();
-        savePasswordResetToken(user, resetToken);
+        String resetToken = secretGenerator.urlToken();
+        transactionTemplate.executeWithoutResult(status -> {
+            passwordResetTokenRepository.deleteByUser(user);
+            savePasswordResetToken(user, resetToken);
+        });
 
         String resetLink = "https://localhost:8080/auth/reset-password?token=" + resetToken;
         sendPasswordResetEmail(user, resetLink);
     }
 
     private void savePasswordResetToken(User user, String resetToken) {
-        PasswordResetToken passwordResetToken = new PasswordResetToken(user, resetToken, LocalDateTime.now().plusMinutes(5));
+        PasswordResetToken passwordResetToken = new PasswordResetToken(user, SecretDigest.sha256(resetToken), LocalDateTime.now().plusMinutes(5));
         passwordResetTokenRepository.save(passwordResetToken);
     }
 
     public void resetPassword(String token, String newPassword) {
-        PasswordResetToken passwordResetToken = validatePasswordResetToken(token);
-        User user = passwordResetToken.getUser();
-
+        // Ранняя проверка отсекает неверные токены до дорогого хэширования
+        validatePasswordResetToken(token);
         validateNewPassword(newPassword);
 
-        updatePassword(user, newPassword);
-        passwordResetTokenRepository.deleteByToken(token);
+        // BCrypt выполняется до открытия транзакции
+        String encodedPassword = passwordEncoder.encode(newPassword);
+        // Токен перечитывается в каждой попытке: если параллельный запрос уже использовал его,
+        // повтор завершится ошибкой неверного токена, а не второй сменой пароля
+        OptimisticRetry.run(() -> transactionTemplate.executeWithoutResult(status -> {
+            PasswordResetToken passwordResetToken = validatePasswordResetToken(token);
+            updatePassword(passwordResetToken.getUser(), encodedPassword);
+            passwordResetTokenRepository.delete(passwordResetToken);
+        }));
     }
 
     public void validateNewPassword(String newPassword) {
@@ -64,14 +95,13 @@ public class PasswordService {
         }
     }
 
-    private void updatePassword(User user, String newPassword) {
-        String encodedPassword = passwordEncoder.encode(newPassword);
+    private void updatePassword(User user, String encodedPassword) {
         user.setPassword(encodedPassword);
         userRepository.save(user);
     }
 
     private PasswordResetToken validatePasswordResetToken(String token) {
-        PasswordResetToken passwordResetToken = passwordResetTokenRepository.findByToken(token)
+        PasswordResetToken passwordResetToken = passwordResetTokenRepository.findByTokenHash(SecretDigest.sha256(token))
                 .orElseThrow(() -> new ValidationException("Неверный или истекший токен для восстановления пароля"));
 
         if (passwordResetToken.getExpirationDate().isBefore(LocalDateTime.now())) {
@@ -87,10 +117,6 @@ public class PasswordService {
         }
     }
 
-    private String generatePasswordResetToken() {
-        return UUID.randomUUID().toString();
-    }
-
     public void sendPasswordResetEmail(User user, String resetLink) {
         String subject = "Сброс пароля";
         String htmlMessage = generatePasswordResetEmailContent(resetLink);
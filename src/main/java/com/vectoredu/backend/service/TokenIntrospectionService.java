@@ -0,0 +1,138 @@
+package com.vectoredu.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.vectoredu.backend.dto.response.TokenIntrospection;
+import com.vectoredu.backend.repository.UserRepository;
+import com.vectoredu.backend.util.SecretDigest;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Проверка токенов для сервисов, которые не проверяют JWT сами.
+ * <p>
+ * Действительные результаты кэшируются по SHA-256 токена до его exp, но не дольше
+ * {@code app.introspection.cache-ttl}: иначе refresh-токен отключенного пользователя считался бы
+ * действительным еще два месяца. Недействительные результаты не кэшируются.
+ */
+@Service
+public class TokenIntrospectionService {
+    private final JwtService jwtService;
+    private final UserRepository userRepository;
+    private final Cache<ByteBuffer, TokenIntrospection> cache;
+
+    public TokenIntrospectionService(
+            JwtService jwtService,
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.introspection.cache-size}") long cacheSize,
+            @Value("${app.introspection.cache-ttl}") long cacheTtlMillis
+    ) {
+        this.jwtService = jwtService;
+        this.userRepository = userRepository;
+        long cacheTtlNanos = Duration.ofMillis(cacheTtlMillis).toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<ByteBuffer, TokenIntrospection>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer key, TokenIntrospection value, long currentTime) {
+                        long untilExpiry = Duration.between(Instant.now(), value.getExpiresAt()).toNanos();
+                        return Math.max(0, Math.min(untilExpiry, cacheTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer key, TokenIntrospection value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer key, TokenIntrospection value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "token.introspection");
+    }
+
+    /**
+     * Результаты в порядке входных токенов. Токены, которых нет в кэше, разбираются по одному,
+     * а их владельцы проверяются одним запросом к базе (двумя, если в пачке есть токены со старым subject).
+     */
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        TokenIntrospection[] results = new TokenIntrospection[tokens.size()];
+        Map<Integer, Claims> misses = new HashMap<>();
+        ByteBuffer[] keys = new ByteBuffer[tokens.size()];
+
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            if (token == null || token.isBlank()) {
+                results[i] = TokenIntrospection.INACTIVE;
+                continue;
+            }
+            keys[i] = ByteBuffer.wrap(SecretDigest.sha256(token));
+            TokenIntrospection cached = cache.getIfPresent(keys[i]);
+            if (cached != null) {
+                results[i] = cached;
+                continue;
+            }
+            try {
+                misses.put(i, jwtService.extractAllClaims(token));
+            } catch (JwtException | IllegalArgumentException e) {
+                results[i] = TokenIntrospection.INACTIVE;
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Set<String> enabled = enabledSubjects(misses.values());
+            misses.forEach((i, claims) -> {
+                if (!enabled.contains(claims.getSubject())) {
+                    results[i] = TokenIntrospection.INACTIVE;
+                    return;
+                }
+                TokenIntrospection result = new TokenIntrospection(true, claims.getSubject(), claims.getExpiration().toInstant());
+                cache.put(keys[i], result);
+                results[i] = result;
+            });
+        }
+        return Arrays.asList(results);
+    }
+
+    // Subject - id пользователя; почта встречается только в токенах, выпущенных до перехода на id
+    private Set<String> enabledSubjects(Collection<Claims> claims) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Claims claim : claims) {
+            Long id = JwtService.userId(claim.getSubject());
+            if (id != null) {
+                ids.add(id);
+            } else if (claim.getSubject() != null) {
+                emails.add(claim.getSubject());
+            }
+        }
+        Set<String> enabled = new HashSet<>();
+        if (!ids.isEmpty()) {
+            userRepository.findEnabledIds(ids).forEach(id -> enabled.add(String.valueOf(id)));
+        }
+        if (!emails.isEmpty()) {
+            enabled.addAll(userRepository.findEnabledEmails(emails));
+        }
+        return enabled;
+    }
+}
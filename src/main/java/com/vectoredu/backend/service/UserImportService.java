@@ -0,0 +1,176 @@
+package com.vectoredu.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vectoredu.backend.dto.request.RegisterUserDto;
+import com.vectoredu.backend.dto.response.UserImportReport;
+import com.vectoredu.backend.model.User;
+import com.vectoredu.backend.repository.UserRepository;
+import com.vectoredu.backend.util.exception.ValidationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Массовое создание пользователей из JSON-массива.
+ * <p>
+ * Тело запроса читается потоково и обрабатывается пачками по {@code app.import.batch-size}:
+ * в памяти одновременно находится только текущая пачка. Пароли хэшируются параллельно
+ * в ограниченном пуле, пачка вставляется одним JDBC-батчем, письма с кодом подтверждения
+ * ставятся в очередь отправки.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+    private static final String USER_EXISTS = "Пользователь с такой почтой уже зарегистрирован";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final AuthenticationService authenticationService;
+    private final Executor passwordHashingExecutor;
+
+    @Value("${app.import.batch-size}")
+    private int batchSize;
+
+    @Value("${app.import.max-errors}")
+    private int maxErrors;
+
+    public UserImportService(
+            ObjectMapper objectMapper,
+            Validator validator,
+            PasswordEncoder passwordEncoder,
+            UserRepository userRepository,
+            AuthenticationService authenticationService,
+            @Qualifier("passwordHashingExecutor") Executor passwordHashingExecutor
+    ) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.authenticationService = authenticationService;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+    }
+
+    public UserImportReport importUsers(InputStream body) throws IOException {
+        UserImportReport report = new UserImportReport();
+        List<ImportRow> chunk = new ArrayList<>(batchSize);
+
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ValidationException("Ожидается JSON-массив пользователей");
+            }
+            int row = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                chunk.add(new ImportRow(++row, objectMapper.readValue(parser, RegisterUserDto.class)));
+                if (chunk.size() == batchSize) {
+                    processChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new ValidationException("Ожидается объект пользователя в строке " + (row + 1));
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Неверный JSON, импортировано строк: " + report.getProcessed() + ". " + e.getOriginalMessage());
+        }
+
+        processChunk(chunk, report);
+        return report;
+    }
+
+    private void processChunk(List<ImportRow> chunk, UserImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        report.setProcessed(report.getProcessed() + chunk.size());
+
+        List<ImportRow> valid = new ArrayList<>();
+        Set<String> emails = new HashSet<>();
+        for (ImportRow row : chunk) {
+            String error = validate(row.input());
+            if (error == null && !emails.add(row.input().getEmail())) {
+                error = "Email повторяется в файле";
+            }
+            if (error != null) {
+                addError(report, row, error);
+            } else {
+                valid.add(row);
+            }
+        }
+
+        // Пользователи из предыдущих пачек уже в базе, поэтому повторы между пачками тоже находятся здесь
+        Set<String> existing = emails.isEmpty() ? Set.of() : new HashSet<>(userRepository.findExistingEmails(emails));
+        List<ImportRow> fresh = new ArrayList<>();
+        List<CompletableFuture<User>> pending = new ArrayList<>();
+        for (ImportRow row : valid) {
+            if (existing.contains(row.input().getEmail())) {
+                addError(report, row, USER_EXISTS);
+                continue;
+            }
+            fresh.add(row);
+            pending.add(CompletableFuture.supplyAsync(() -> createUser(row.input()), passwordHashingExecutor));
+        }
+
+        List<User> users = pending.stream().map(CompletableFuture::join).toList();
+        // Почта могла быть зарегистрирована параллельно между проверкой и вставкой
+        Set<String> inserted = userRepository.insertAll(users);
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (inserted.contains(user.getEmail())) {
+                authenticationService.queueVerificationEmail(user);
+            } else {
+                addError(report, fresh.get(i), USER_EXISTS);
+            }
+        }
+        report.setCreated(report.getCreated() + inserted.size());
+
+        log.info("Импорт пользователей: обработано {}, создано {}, ошибок {}",
+                report.getProcessed(), report.getCreated(), report.getFailed());
+    }
+
+    private String validate(RegisterUserDto input) {
+        Set<ConstraintViolation<RegisterUserDto>> violations = validator.validate(input);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    private void addError(UserImportReport report, ImportRow row, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new UserImportReport.RowError(row.number(), row.input().getEmail(), message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private User createUser(RegisterUserDto input) {
+        User user = User.builder()
+                .firstName(input.getFirstName())
+                .lastName(input.getLastName())
+                .email(input.getEmail())
+                .password(passwordEncoder.encode(input.getPassword()))
+                .enabled(false)
+                .build();
+        authenticationService.assignVerificationCode(user);
+        return user;
+    }
+
+    private record ImportRow(int number, RegisterUserDto input) {
+    }
+}
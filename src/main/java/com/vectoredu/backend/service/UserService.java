@@ -1,7 +1,9 @@
 package com.vectoredu.backend.service;
 
+import com.vectoredu.backend.cache.UserCache;
 import com.vectoredu.backend.model.User;
 import com.vectoredu.backend.repository.UserRepository;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -10,8 +12,32 @@ import java.util.List;
 @Service
 public class UserService {
     private final UserRepository userRepository;
-    public UserService(UserRepository userRepository, EmailService emailService) {
+    private final LoginAttemptService loginAttemptService;
+    private final UserCache userCache;
+    public UserService(UserRepository userRepository, EmailService emailService, LoginAttemptService loginAttemptService,
+                       UserCache userCache) {
         this.userRepository = userRepository;
+        this.loginAttemptService = loginAttemptService;
+        this.userCache = userCache;
+    }
+
+    // Пользователь по subject токена: по id берется из кэша, по почте (токены до перехода на id) из базы.
+    // Кэш заполняется с основного сервера: строка с реплики после сброса кэша могла бы быть старой
+    public User loadUserBySubject(String subject) {
+        Long id = JwtService.userId(subject);
+        User user = (id != null ? userCache.get(id, userRepository::findPrimaryById) : userRepository.findByEmail(subject))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        user.setAccountLocked(loginAttemptService.isBlocked(user.getEmail()));
+        return user;
+    }
+
+    // Слабый ETag: тело списка сжимается, а Tomcat не сжимает ответы с сильным ETag
+    public String allUsersETag() {
+        return "W/\"users-" + userRepository.findUsersFingerprint() + "\"";
+    }
+
+    public String userETag(User user) {
+        return "\"u" + user.getId() + "v" + user.getVersion() + "\"";
     }
 
     public List<User> allUsers() {
@@ -0,0 +1,91 @@
+package com.vectoredu.backend.util;
+
+import org.springframework.stereotype.Component;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Генератор секретов без общей блокировки.
+ * <p>
+ * У каждого потока свой экземпляр DRBG и буфер случайных байт: общий SecureRandom, через который
+ * работает {@code UUID.randomUUID()}, синхронизирован, а NativePRNG на Linux читает /dev/urandom
+ * под статической блокировкой даже для разных экземпляров. DRBG засевается из системной энтропии
+ * при создании и дальше работает только со своим состоянием.
+ */
+@Component
+public class BufferedSecretGenerator implements SecretGenerator {
+    private static final int BUFFER_SIZE = 512;
+    private static final int TOKEN_BYTES = 32;
+
+    private static final int CODE_MIN = 100_000;
+    private static final int CODE_RANGE = 900_000;
+    // Значения не меньше этой границы отбрасываются, чтобы остаток от деления был равномерным
+    private static final long CODE_LIMIT = (1L << 32) - (1L << 32) % CODE_RANGE;
+
+    private static final Base64.Encoder URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final ThreadLocal<RandomBuffer> buffers = ThreadLocal.withInitial(RandomBuffer::new);
+
+    @Override
+    public String verificationCode() {
+        RandomBuffer buffer = buffers.get();
+        long value;
+        do {
+            value = buffer.nextUnsignedInt();
+        } while (value >= CODE_LIMIT);
+        return String.valueOf(CODE_MIN + value % CODE_RANGE);
+    }
+
+    @Override
+    public String urlToken() {
+        byte[] token = new byte[TOKEN_BYTES];
+        buffers.get().nextBytes(token);
+        return URL_ENCODER.encodeToString(token);
+    }
+
+    private static final class RandomBuffer {
+        private final SecureRandom random = newDrbg();
+        private final byte[] bytes = new byte[BUFFER_SIZE];
+        private int position = BUFFER_SIZE;
+
+        long nextUnsignedInt() {
+            ensure(4);
+            long value = ((bytes[position] & 0xFFL) << 24)
+                    | ((bytes[position + 1] & 0xFFL) << 16)
+                    | ((bytes[position + 2] & 0xFFL) << 8)
+                    | (bytes[position + 3] & 0xFFL);
+            consume(4);
+            return value;
+        }
+
+        void nextBytes(byte[] target) {
+            ensure(target.length);
+            System.arraycopy(bytes, position, target, 0, target.length);
+            consume(target.length);
+        }
+
+        private void ensure(int count) {
+            if (BUFFER_SIZE - position < count) {
+                random.nextBytes(bytes);
+                position = 0;
+            }
+        }
+
+        // Выданные байты затираются, чтобы в буфере не оставалось копий секретов
+        private void consume(int count) {
+            Arrays.fill(bytes, position, position + count, (byte) 0);
+            position += count;
+        }
+
+        private static SecureRandom newDrbg() {
+            try {
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+    }
+}
@@ -1,56 +1,102 @@
 package com.vectoredu.backend.util;
 
 import com.vectoredu.backend.util.exception.*;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(UserException.class)
     public ResponseEntity<ErrorResponse> handleUserException(UserException ex) {
-        logger.error(ex.getMessage(), ex);
-        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+        return expectedFailure(ex, HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
     @ExceptionHandler(KnownUseCaseException.class)
     public ResponseEntity<ErrorResponse> handlerKnownUseCaseException(KnownUseCaseException ex) {
-        logger.error(ex.getMessage(), ex);
-        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.CONFLICT.value(), ex.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+        return expectedFailure(ex, HttpStatus.CONFLICT, ex.getMessage());
     }
 
     @ExceptionHandler(VerificationException.class)
     public ResponseEntity<ErrorResponse> handlerVerificationException(VerificationException ex) {
-        logger.error(ex.getMessage(), ex);
-        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.FORBIDDEN.value(), ex.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.FORBIDDEN);
+        return expectedFailure(ex, HttpStatus.FORBIDDEN, ex.getMessage());
     }
 
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(ValidationException ex) {
-        logger.error(ex.getMessage(), ex);
-        ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.BAD_REQUEST.value(),
-                ex.getMessage()
-        );
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return expectedFailure(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
+        String message = ex.getBindingResult().getFieldErrors().stream()
+                .map(FieldError::getDefaultMessage)
+                .findFirst()
+                .orElse("Неверные данные");
+        return expectedFailure(ex, HttpStatus.BAD_REQUEST, message);
+    }
 
     @ExceptionHandler(UnauthorizedException.class)
     public ResponseEntity<ErrorResponse> handleUnauthorizedException(UnauthorizedException ex) {
-        logger.error(ex.getMessage(), ex);
-        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.UNAUTHORIZED.value(), ex.getMessage());
-        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
+        return expectedFailure(ex, HttpStatus.UNAUTHORIZED, ex.getMessage());
+    }
+
+    // Просроченный или подделанный токен - штатная ситуация, а не внутренняя ошибка
+    @ExceptionHandler(JwtException.class)
+    public ResponseEntity<ErrorResponse> handleJwtException(JwtException ex) {
+        return expectedFailure(ex, HttpStatus.UNAUTHORIZED, "Недействительный токен");
+    }
+
+    @ExceptionHandler(AccountLockedException.class)
+    public ResponseEntity<ErrorResponse> handleAccountLockedException(AccountLockedException ex) {
+        return expectedFailure(ex, HttpStatus.LOCKED, ex.getMessage());
+    }
+
+    // Конфликт версий, не разрешившийся повторами
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return expectedFailure(ex, HttpStatus.CONFLICT, "Данные были изменены параллельным запросом, повторите попытку");
+    }
+
+    @ExceptionHandler({TimeoutException.class, AsyncRequestTimeoutException.class})
+    public ResponseEntity<ErrorResponse> handleTimeoutException(Exception ex) {
+        logger.warn("Request timed out: {}", ex.toString());
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Превышено время ожидания, повторите запрос позже");
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleTaskRejectedException(TaskRejectedException ex) {
+        logger.warn("Request rejected: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Сервис перегружен, повторите запрос позже");
+        return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
     }
 
     @ExceptionHandler(GeneralException.class)
@@ -66,4 +112,18 @@ public class GlobalExceptionHandler {
         ErrorResponse errorResponse = new ErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Unexpected error occurred");
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    // Ожидаемые ошибки считаются метрикой app.errors.expected, в лог попадает одна строка без стека на уровне DEBUG
+    private ResponseEntity<ErrorResponse> expectedFailure(Exception ex, HttpStatus status, String message) {
+        String type = ex.getClass().getSimpleName();
+        counters.computeIfAbsent(type, key -> Counter.builder("app.errors.expected")
+                        .tag("exception", key)
+                        .tag("status", String.valueOf(status.value()))
+                        .register(meterRegistry))
+                .increment();
+        if (logger.isDebugEnabled()) {
+            logger.debug("{} {}: {}", status.value(), type, message);
+        }
+        return new ResponseEntity<>(new ErrorResponse(status.value(), message), status);
+    }
 }
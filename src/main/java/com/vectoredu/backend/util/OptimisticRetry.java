@@ -0,0 +1,54 @@
+package com.vectoredu.backend.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Повтор транзакции при конфликте версий (@Version).
+ * <p>
+ * Передаваемая операция должна сама открывать транзакцию и перечитывать данные, чтобы каждая
+ * попытка видела актуальное состояние, и должна быть идемпотентной. После исчерпания попыток
+ * исключение уходит в обработчик и превращается в 409.
+ */
+@Slf4j
+public final class OptimisticRetry {
+    public static final int MAX_ATTEMPTS = 3;
+
+    private static final long MAX_BACKOFF_MILLIS = 20;
+
+    private OptimisticRetry() {
+    }
+
+    public static <T> T call(Supplier<T> operation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return operation.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Конфликт версий, попытка {} из {}: {}", attempt, MAX_ATTEMPTS, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    public static void run(Runnable operation) {
+        call(() -> {
+            operation.run();
+            return null;
+        });
+    }
+
+    // Случайная пауза разводит конкурирующие запросы, чтобы они не столкнулись снова
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(MAX_BACKOFF_MILLIS * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.vectoredu.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 для одноразовых секретов (код подтверждения, токен сброса пароля).
+ * <p>
+ * В базе хранится только 32-байтный дайджест: по нему идет поиск через уникальный индекс,
+ * а утечка таблицы не раскрывает действующие секреты. Секреты короткоживущие и случайные,
+ * поэтому медленный KDF не нужен. Код подтверждения хэшируется вместе с почтой, иначе
+ * шестизначные коды разных пользователей совпадали бы.
+ */
+public final class SecretDigest {
+
+    private SecretDigest() {
+    }
+
+    public static byte[] sha256(String secret) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    public static byte[] verificationCode(String email, String code) {
+        return sha256(email + ":" + code);
+    }
+
+    // Сравнение за постоянное время
+    public static boolean matches(byte[] expected, byte[] actual) {
+        return expected != null && actual != null && MessageDigest.isEqual(expected, actual);
+    }
+}
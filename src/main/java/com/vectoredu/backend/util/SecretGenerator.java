@@ -0,0 +1,11 @@
+package com.vectoredu.backend.util;
+
+// Источник одноразовых секретов: коды подтверждения и токены для ссылок
+public interface SecretGenerator {
+
+    // Шестизначный код из диапазона 100000-999999
+    String verificationCode();
+
+    // 256 бит случайности в base64url без дополнения, пригодно для URL
+    String urlToken();
+}
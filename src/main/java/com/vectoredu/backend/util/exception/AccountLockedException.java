@@ -0,0 +1,7 @@
+package com.vectoredu.backend.util.exception;
+
+public class AccountLockedException extends DomainException {
+    public AccountLockedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.vectoredu.backend.util.exception;
+
+/**
+ * Базовый класс ожидаемых бизнес-ошибок: неверный пароль, занятая почта, неподтвержденный аккаунт.
+ * <p>
+ * Такие ошибки возникают в штатном потоке и превращаются в HTTP-ответ, поэтому стек вызовов
+ * не собирается: под перебором паролей его захват был бы основной работой запроса.
+ */
+public abstract class DomainException extends RuntimeException {
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,6 +1,6 @@
 package com.vectoredu.backend.util.exception;
 
-public class KnownUseCaseException extends RuntimeException {
+public class KnownUseCaseException extends DomainException {
     public KnownUseCaseException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.vectoredu.backend.util.exception;
 
-public class UserException extends RuntimeException {
+public class UserException extends DomainException {
     public UserException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.vectoredu.backend.util.exception;
 
-public class VerificationException extends RuntimeException {
+public class VerificationException extends DomainException {
     public VerificationException(String message) {
         super(message);
     }
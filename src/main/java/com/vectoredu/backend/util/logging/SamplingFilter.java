@@ -0,0 +1,84 @@
+package com.vectoredu.backend.util.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.filter.Filter;
+import ch.qos.logback.core.spi.FilterReply;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Пропускает не больше {@code maxPerSecond} событий в секунду от каждого из перечисленных логгеров,
+ * остальные отбрасывает. Нужен для логгеров, объем которых задает внешний трафик (неудачные входы,
+ * блокировки при переборе паролей): счет таких событий ведут метрики, а в лог достаточно образцов.
+ * <p>
+ * Пример подключения в logback-spring.xml:
+ * <pre>{@code
+ * <filter class="com.vectoredu.backend.util.logging.SamplingFilter">
+ *     <loggers>com.example.A,com.example.B</loggers>
+ *     <maxPerSecond>10</maxPerSecond>
+ * </filter>
+ * }</pre>
+ */
+public class SamplingFilter extends Filter<ILoggingEvent> {
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    private Set<String> loggers = Set.of();
+    private int maxPerSecond = 10;
+
+    public SamplingFilter() {
+        this(System::currentTimeMillis);
+    }
+
+    public SamplingFilter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public FilterReply decide(ILoggingEvent event) {
+        if (!loggers.contains(event.getLoggerName())) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(event.getLoggerName(), key -> new Window());
+        return window.tryAcquire(clock.getAsLong() / 1000, maxPerSecond) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public long getDropped(String loggerName) {
+        Window window = windows.get(loggerName);
+        return window == null ? 0 : window.dropped.get();
+    }
+
+    public void setLoggers(String loggers) {
+        this.loggers = Set.copyOf(Arrays.asList(loggers.trim().split("\\s*,\\s*")));
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    private static final class Window {
+        // Старшие 32 бита - номер секунды, младшие - число пропущенных в ней событий
+        private final AtomicLong state = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        boolean tryAcquire(long second, int limit) {
+            while (true) {
+                long current = state.get();
+                long count = current >>> 32 == second ? current & 0xFFFFFFFFL : 0;
+                if (count >= limit) {
+                    dropped.incrementAndGet();
+                    return false;
+                }
+                if (state.compareAndSet(current, (second << 32) | (count + 1))) {
+                    return true;
+                }
+            }
+        }
+    }
+}
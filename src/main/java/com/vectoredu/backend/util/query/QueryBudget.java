@@ -0,0 +1,21 @@
+package com.vectoredu.backend.util.query;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Сколько SQL-запросов может выполнить обработчик, включая его асинхронную часть.
+ * <p>
+ * Проверяется, только если {@code app.query-budget.mode} не {@code off}; без аннотации действует
+ * {@code app.query-budget.default}. Аннотация на методе важнее аннотации на контроллере.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+    // Для эндпоинтов, где число запросов растет с объемом входных данных (пакетный импорт)
+    int UNLIMITED = Integer.MAX_VALUE;
+
+    int value();
+}
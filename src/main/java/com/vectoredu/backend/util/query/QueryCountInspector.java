@@ -0,0 +1,16 @@
+package com.vectoredu.backend.util.query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate вызывает inspect при подготовке каждого SQL; запросы вне HTTP-обработчиков не считаются
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCounter counter = QueryCounter.current();
+        if (counter != null) {
+            counter.record(sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,63 @@
+package com.vectoredu.backend.util.query;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Счетчик SQL-запросов одного HTTP-запроса.
+ * <p>
+ * Привязывается к потоку сервлета на время обработчика и переносится в потоки пулов
+ * {@link QueryCounterTaskDecorator}, поэтому общий для них и потокобезопасный.
+ */
+public class QueryCounter {
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    @Getter
+    private final String endpoint;
+    @Getter
+    private final int budget;
+    private final boolean failFast;
+    private final AtomicInteger count = new AtomicInteger();
+
+    public QueryCounter(String endpoint, int budget, boolean failFast) {
+        this.endpoint = endpoint;
+        this.budget = budget;
+        this.failFast = failFast;
+    }
+
+    public static QueryCounter current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(QueryCounter counter) {
+        if (counter != null) {
+            CURRENT.set(counter);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Учитывает запрос; в режиме fail запрос сверх бюджета не выполняется, а исключение указывает на его место.
+     */
+    public void record(String sql) {
+        int executed = count.incrementAndGet();
+        if (failFast && executed > budget) {
+            throw new IllegalStateException("Превышен бюджет SQL-запросов " + endpoint + ": запрос " + executed
+                    + " при бюджете " + budget + ": " + sql);
+        }
+    }
+
+    public int getCount() {
+        return count.get();
+    }
+
+    public boolean isExceeded() {
+        return count.get() > budget;
+    }
+}
@@ -0,0 +1,24 @@
+package com.vectoredu.backend.util.query;
+
+import org.springframework.core.task.TaskDecorator;
+
+// Переносит счетчик запросов из потока, поставившего задачу, в поток пула
+public class QueryCounterTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        QueryCounter counter = QueryCounter.current();
+        if (counter == null) {
+            return runnable;
+        }
+        return () -> {
+            QueryCounter previous = QueryCounter.current();
+            QueryCounter.bind(counter);
+            try {
+                runnable.run();
+            } finally {
+                QueryCounter.bind(previous);
+            }
+        };
+    }
+}
@@ -4,12 +4,21 @@ import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Pattern;
-
+/**
+ * Проверка синтаксиса email конечным автоматом за один проход.
+ * Принимает тот же язык, что и
+ * {@code ^[a-zA-Z0-9_+&*-]+(?:\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\.)+[a-zA-Z]{2,7}$},
+ * но ограничивает длину адреса 254 символами (RFC 5321).
+ */
 @Component
 public class EmailValidator implements ConstraintValidator<ValidEmail, String> {
 
-    private static final String EMAIL_PATTERN = "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$";
+    private static final int MAX_LENGTH = 254;
+
+    private static final int LOCAL_START = 0;
+    private static final int LOCAL = 1;
+    private static final int LABEL_START = 2;
+    private static final int LABEL = 3;
 
     @Override
     public void initialize(ValidEmail constraintAnnotation) {
@@ -17,6 +26,68 @@ public class EmailValidator implements ConstraintValidator<ValidEmail, String> {
 
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
-        return value != null && Pattern.matches(EMAIL_PATTERN, value);
+        if (value == null || value.length() > MAX_LENGTH) {
+            return false;
+        }
+
+        int state = LOCAL_START;
+        int labels = 0;
+        int labelLength = 0;
+        boolean labelLettersOnly = true;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (state) {
+                case LOCAL_START -> {
+                    if (!isLocalChar(c)) {
+                        return false;
+                    }
+                    state = LOCAL;
+                }
+                case LOCAL -> {
+                    if (c == '.') {
+                        state = LOCAL_START;
+                    } else if (c == '@') {
+                        state = LABEL_START;
+                    } else if (!isLocalChar(c)) {
+                        return false;
+                    }
+                }
+                case LABEL_START, LABEL -> {
+                    if (c == '.' && state == LABEL) {
+                        state = LABEL_START;
+                        labels++;
+                        labelLength = 0;
+                        labelLettersOnly = true;
+                    } else if (isLabelChar(c)) {
+                        state = LABEL;
+                        labelLength++;
+                        labelLettersOnly &= isLetter(c);
+                    } else {
+                        return false;
+                    }
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+        // Последняя метка домена - зона верхнего уровня из 2-7 латинских букв
+        return state == LABEL && labels > 0 && labelLettersOnly && labelLength >= 2 && labelLength <= 7;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLabelChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '-';
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isLetter(c) || isDigit(c) || c == '_' || c == '+' || c == '&' || c == '*' || c == '-';
     }
 }
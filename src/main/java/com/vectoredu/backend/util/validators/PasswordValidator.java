@@ -4,12 +4,16 @@ import jakarta.validation.ConstraintValidator;
 import jakarta.validation.ConstraintValidatorContext;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Pattern;
-
+/**
+ * Проверка пароля за один проход по строке без регулярных выражений.
+ * Правило совпадает с {@code ^(?=.*[A-Z])(?=.*[0-9]).{8,20}$}: длина считается
+ * в кодовых точках, символы перевода строки не допускаются.
+ */
 @Component
 public class PasswordValidator implements ConstraintValidator<ValidPassword, String> {
 
-    private static final String PASSWORD_PATTERN = "^(?=.*[A-Z])(?=.*[0-9]).{8,20}$";
+    private static final int MIN_LENGTH = 8;
+    private static final int MAX_LENGTH = 20;
 
     @Override
     public void initialize(ValidPassword constraintAnnotation) {
@@ -17,6 +21,32 @@ public class PasswordValidator implements ConstraintValidator<ValidPassword, Str
 
     @Override
     public boolean isValid(String value, ConstraintValidatorContext context) {
-        return value != null && Pattern.matches(PASSWORD_PATTERN, value);
+        // Суррогатная пара занимает два char, поэтому верхняя граница для length() удвоена
+        if (value == null || value.length() < MIN_LENGTH || value.length() > MAX_LENGTH * 2) {
+            return false;
+        }
+
+        boolean hasUppercase = false;
+        boolean hasDigit = false;
+        int codePoints = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (isLineTerminator(c)) {
+                return false;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                hasUppercase = true;
+            } else if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                i++;
+            }
+            codePoints++;
+        }
+        return hasUppercase && hasDigit && codePoints >= MIN_LENGTH && codePoints <= MAX_LENGTH;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 }
@@ -3,9 +3,16 @@ package com.vectoredu.backend.util.validators;
 import jakarta.validation.Constraint;
 import jakarta.validation.Payload;
 
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
 @Constraint(validatedBy = EmailValidator.class)
 public @interface ValidEmail {
-    String message() default "Invalid email address";
+    String message() default "Не верный формат email";
 
     Class<?>[] groups() default {};
 
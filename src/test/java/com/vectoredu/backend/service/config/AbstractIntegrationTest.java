@@ -1,16 +1,24 @@
 package com.vectoredu.backend.service.config;
 
+import com.vectoredu.backend.service.EmailService;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 @Testcontainers
 @SpringBootTest
+@ActiveProfiles("test")
 public abstract class AbstractIntegrationTest {
 
+    // Mail is not delivered in tests; secrets sent by email are read from the captured calls
+    @MockitoBean
+    protected EmailService emailService;
+
     // Define a static PostgreSQLContainer to ensure it's shared across all tests
     @Container
     public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:13")
@@ -31,5 +39,7 @@ public abstract class AbstractIntegrationTest {
         registry.add("spring.datasource.url", postgresContainer::getJdbcUrl);
         registry.add("spring.datasource.username", postgresContainer::getUsername);
         registry.add("spring.datasource.password", postgresContainer::getPassword);
+        // Endpoints that exceed their @QueryBudget fail instead of only logging
+        registry.add("app.query-budget.mode", () -> "fail");
     }
 }
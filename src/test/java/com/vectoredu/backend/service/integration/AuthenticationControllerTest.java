@@ -3,16 +3,37 @@ package com.vectoredu.backend.service.integration;
 import com.jayway.jsonpath.JsonPath;
 import com.vectoredu.backend.service.config.AbstractIntegrationTest;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.mockito.ArgumentCaptor;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
-
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
@@ -26,12 +47,16 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @AfterEach
     public void clearDatabase() {
         jdbcTemplate.execute("""
             DELETE FROM reset_password;
             DELETE FROM users;
         """);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
     }
 
     @BeforeEach
@@ -45,7 +70,7 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
             }
         """;
 
-        mockMvc.perform(post("/auth/signup")
+        performAsync(post("/auth/signup")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk())
@@ -65,7 +90,7 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
             }
         """;
 
-        mockMvc.perform(post("/auth/signup")
+        performAsync(post("/auth/signup")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json))
                 .andExpect(status().isOk())
@@ -78,11 +103,7 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
     public void testVerifyUser() throws Exception {
         String email = "test@example.com";
 
-        String verificationCode = jdbcTemplate.queryForObject("""
-            SELECT verification_code 
-            FROM users 
-            WHERE email = ?
-        """, new Object[]{email}, String.class);
+        String verificationCode = sentVerificationCode(email);
 
         String json = String.format("""
             {
@@ -103,11 +124,7 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
         String email = "test@example.com";
         String password = "Password123";
 
-        String verificationCode = jdbcTemplate.queryForObject("""
-            SELECT verification_code 
-            FROM users 
-            WHERE email = ?
-        """, new Object[]{email}, String.class);
+        String verificationCode = sentVerificationCode(email);
 
         String json1 = String.format("""
             {
@@ -132,12 +149,14 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
         mockMvc.perform(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(json2))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiresIn").exists())
+                .andExpect(jsonPath("$.refreshAfter").exists());
     }
 
     @Test
     public void testResendVerificationCode() throws Exception {
-        mockMvc.perform(post("/auth/resend")
+        performAsync(post("/auth/resend")
                         .param("email", "test@example.com"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").value("Код для подтверждения отправлен"));
@@ -147,12 +166,9 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
     public void testRequestPasswordReset() throws Exception {
         String email = "test@example.com";
 
-        jdbcTemplate.update("""
-            UPDATE users SET enabled = TRUE 
-            WHERE email = ?
-        """, email);
+        markVerified(email);
 
-        mockMvc.perform(post("/auth/request-password-reset")
+        performAsync(post("/auth/request-password-reset")
                         .param("email", email))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").value("Ссылка для сброса пароля отправлена на вашу почту"));
@@ -163,27 +179,14 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
         String email = "test@example.com";
         String newPassword = "NewPassword123";
 
-        jdbcTemplate.update("""
-            UPDATE users SET enabled = TRUE 
-            WHERE email = ?
-        """, email);
+        markVerified(email);
 
-        mockMvc.perform(post("/auth/request-password-reset")
+        performAsync(post("/auth/request-password-reset")
                         .param("email", email))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").value("Ссылка для сброса пароля отправлена на вашу почту"));
 
-        Long userId = jdbcTemplate.queryForObject("""
-            SELECT id 
-            FROM users 
-            WHERE email = ?
-        """, new Object[]{email}, Long.class);
-
-        String token = jdbcTemplate.queryForObject("""
-            SELECT token 
-            FROM reset_password 
-            WHERE user_id = ?
-        """, new Object[]{userId}, String.class);
+        String token = sentResetToken(email);
 
         mockMvc.perform(patch("/auth/reset-password")
                         .param("token", token)
@@ -197,11 +200,7 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
         String email = "test@example.com";
         String password = "Password123";
 
-        String verificationCode = jdbcTemplate.queryForObject("""
-            SELECT verification_code 
-            FROM users 
-            WHERE email = ?
-        """, new Object[]{email}, String.class);
+        String verificationCode = sentVerificationCode(email);
 
         String verifyJson = String.format("""
             {
@@ -244,6 +243,48 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
                 .andExpect(jsonPath("$").isString());
     }
 
+    @Test
+    public void testJwksPublishesSigningKey() throws Exception {
+        String token = loginVerifiedUser("test@example.com", "Password123");
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        String keyId = JsonPath.read(header, "$.kid");
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("max-age=")))
+                .andExpect(jsonPath("$.keys[?(@.kid == '" + keyId + "')].alg").value("EdDSA"))
+                .andExpect(jsonPath("$.keys[0].d").doesNotExist());
+    }
+
+    @Test
+    public void testIntrospectTokens() throws Exception {
+        String token = loginVerifiedUser("test@example.com", "Password123");
+        String introspectJson = String.format("""
+            {
+                "tokens": ["%s", "not-a-token"]
+            }
+        """, token);
+
+        // Anonymous callers could probe tokens and fill the introspection cache
+        mockMvc.perform(post("/auth/introspect")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(introspectJson))
+                .andExpect(status().isForbidden());
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/auth/introspect")
+                            .header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(introspectJson))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].active").value(true))
+                    .andExpect(jsonPath("$[0].subject").value(matchesPattern("\\d+")))
+                    .andExpect(jsonPath("$[0].expiresAt").exists())
+                    .andExpect(jsonPath("$[1].active").value(false))
+                    .andExpect(jsonPath("$[1].subject").doesNotExist());
+        }
+    }
+
     @Test
     public void testRegisterUserWithInvalidEmail() throws Exception {
         String json = """
@@ -273,10 +314,7 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
 
         String email = "test@example.com";
 
-        jdbcTemplate.update("""
-            UPDATE users SET enabled = TRUE 
-            WHERE email = ?
-        """, email);
+        markVerified(email);
 
         mockMvc.perform(post("/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -308,12 +346,9 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
     public void testResendVerificationCodeForVerifiedUser() throws Exception {
         String email = "test@example.com";
 
-        jdbcTemplate.update("""
-            UPDATE users SET enabled = TRUE 
-            WHERE email = ?
-        """, email);
+        markVerified(email);
 
-        mockMvc.perform(post("/auth/resend")
+        performAsync(post("/auth/resend")
                         .param("email", email))
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.message").value("Аккаунт уже подтвержден"));
@@ -330,4 +365,96 @@ public class AuthenticationControllerTest extends AbstractIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Неверный или истекший токен для восстановления пароля"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCurrentUserNotModified() throws Exception {
+        String accessToken = loginVerifiedUser("test@example.com", "Password123");
+
+        MvcResult result = mockMvc.perform(get("/users/me")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String eTag = result.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/users/me")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void testAllUsersNotModifiedUntilChanged() throws Exception {
+        String accessToken = loginVerifiedUser("test@example.com", "Password123");
+
+        MvcResult result = mockMvc.perform(get("/users/")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        String eTag = result.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/users/")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        jdbcTemplate.update("UPDATE users SET first_name = 'Changed', version = version + 1 WHERE email = ?",
+                "test@example.com");
+
+        mockMvc.perform(get("/users/")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("Changed"));
+    }
+
+    // Direct SQL bypasses Hibernate, so the second-level cache is cleared as another node's write would
+    private void markVerified(String email) {
+        jdbcTemplate.update("UPDATE users SET enabled = TRUE WHERE email = ?", email);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private String loginVerifiedUser(String email, String password) throws Exception {
+        markVerified(email);
+
+        String loginJson = String.format("""
+            {
+                "email": "%s", 
+                "password": "%s"
+            }
+        """, email, password);
+
+        MvcResult loginResult = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginJson))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        return JsonPath.read(loginResult.getResponse().getContentAsString(), "$.token");
+    }
+
+    // Only digests are stored, so secrets are taken from the last email sent to the user
+    private String sentVerificationCode(String email) throws Exception {
+        return lastEmailMatch(email, Pattern.compile("VERIFICATION CODE (\\d{6})"));
+    }
+
+    private String sentResetToken(String email) throws Exception {
+        return lastEmailMatch(email, Pattern.compile("token=([A-Za-z0-9_-]+)"));
+    }
+
+    private String lastEmailMatch(String email, Pattern pattern) throws Exception {
+        ArgumentCaptor<String> body = ArgumentCaptor.forClass(String.class);
+        verify(emailService, atLeastOnce()).sendVerificationEmail(eq(email), anyString(), body.capture());
+        Matcher matcher = pattern.matcher(body.getValue());
+        assertTrue(matcher.find(), body.getValue());
+        return matcher.group(1);
+    }
+
+    // Endpoints that send mail complete on a separate executor
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,169 @@
+package com.vectoredu.backend.service.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Runs the binary built by {@code mvn -Pnative -DskipTests package} against PostgreSQL and walks through
+ * the paths that depend on native-image hints: JPA, Bean Validation, JSON binding, JJWT signing and parsing,
+ * JWKS. Skipped until the binary exists, so it is run as a separate step after the native build.
+ */
+@Testcontainers
+@EnabledIf("nativeImageBuilt")
+public class NativeImageSmokeTest {
+
+    private static final Path BINARY = Path.of("target", "backend");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(30);
+    // Fast startup is the point of the native build; the JVM jar needs well over this
+    private static final Duration MAX_STARTUP_TIME = Duration.ofSeconds(2);
+
+    @Container
+    public static PostgreSQLContainer<?> postgresContainer = new PostgreSQLContainer<>("postgres:13")
+            .withDatabaseName("testdb")
+            .withUsername("testuser")
+            .withPassword("testpass");
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private Process process;
+    private String baseUrl;
+
+    static boolean nativeImageBuilt() {
+        return Files.isExecutable(BINARY);
+    }
+
+    @AfterEach
+    public void stopBinary() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testNativeBinaryServesAuthenticationFlow() throws Exception {
+        Duration startupTime = startBinary();
+        assertTrue(startupTime.compareTo(MAX_STARTUP_TIME) <= 0, "Native binary became healthy in " + startupTime);
+
+        HttpResponse<String> jwks = get("/.well-known/jwks.json", null);
+        assertEquals(200, jwks.statusCode());
+        assertTrue(jwks.body().contains("\"kty\":\"OKP\""), jwks.body());
+
+        // Signup needs a mail server, so only validation and the error body are checked
+        HttpResponse<String> invalidSignup = post("/auth/signup", """
+                {"email": "not-an-email", "password": "Password123", "firstName": "Native", "lastName": "User"}
+                """);
+        assertEquals(400, invalidSignup.statusCode(), invalidSignup.body());
+        assertTrue(invalidSignup.body().contains("\"status\":400"), invalidSignup.body());
+
+        // A verified user is inserted directly: the verification code only goes out by email
+        insertVerifiedUser("verified@example.com", "Password123");
+        HttpResponse<String> login = post("/auth/login", """
+                {"email": "verified@example.com", "password": "Password123"}
+                """);
+        assertEquals(200, login.statusCode(), login.body());
+        String accessToken = jsonString(login.body(), "token");
+
+        HttpResponse<String> me = get("/users/me", accessToken);
+        assertEquals(200, me.statusCode(), me.body());
+        assertTrue(me.body().contains("\"email\":\"verified@example.com\""), me.body());
+    }
+
+    // Time from process start to the first healthy response
+    private Duration startBinary() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        baseUrl = "http://localhost:" + port;
+        ProcessBuilder builder = new ProcessBuilder(BINARY.toAbsolutePath().toString(), "--server.port=" + port)
+                .redirectErrorStream(true)
+                .redirectOutput(Path.of("target", "native-smoke.log").toFile());
+        builder.environment().putAll(Map.of(
+                "SPRING_DATASOURCE_URL", postgresContainer.getJdbcUrl(),
+                "SPRING_DATASOURCE_USERNAME", postgresContainer.getUsername(),
+                "SPRING_DATASOURCE_PASSWORD", postgresContainer.getPassword(),
+                "SUPPORT_EMAIL", "x",
+                "APP_PASSWORD", "x",
+                // Single instance: JWT keys are generated in memory
+                "SPRING_PROFILES_ACTIVE", "dev"));
+
+        long started = System.nanoTime();
+        process = builder.start();
+        long deadline = started + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                fail("Native binary exited with code " + process.exitValue() + ", see target/native-smoke.log");
+            }
+            try {
+                if (get("/actuator/health", null).statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - started);
+                }
+            } catch (IOException notListeningYet) {
+                // keep polling
+            }
+            Thread.sleep(20);
+        }
+        return fail("Native binary did not become healthy within " + STARTUP_TIMEOUT);
+    }
+
+    private void insertVerifiedUser(String email, String password) throws Exception {
+        try (Connection connection = DriverManager.getConnection(postgresContainer.getJdbcUrl(),
+                postgresContainer.getUsername(), postgresContainer.getPassword());
+             PreparedStatement statement = connection.prepareStatement("""
+                     INSERT INTO users (first_name, last_name, email, password, enabled, version)
+                     VALUES ('Verified', 'User', ?, ?, TRUE, 0)
+                     """)) {
+            statement.setString(1, email);
+            statement.setString(2, new BCryptPasswordEncoder().encode(password));
+            statement.executeUpdate();
+        }
+    }
+
+    private HttpResponse<String> get(String path, String bearerToken) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET();
+        if (bearerToken != null) {
+            request.header("Authorization", "Bearer " + bearerToken);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String jsonString(String json, String field) {
+        Matcher matcher = Pattern.compile("\"" + field + "\":\"([^\"]+)\"").matcher(json);
+        assertTrue(matcher.find(), json);
+        return matcher.group(1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.vectoredu.backend.service.integration;
+
+import com.vectoredu.backend.config.ReplicaRoutingDataSource;
+import com.vectoredu.backend.dto.request.LoginUserDto;
+import com.vectoredu.backend.model.User;
+import com.vectoredu.backend.repository.UserRepository;
+import com.vectoredu.backend.service.AuthenticationService;
+import com.vectoredu.backend.service.config.AbstractIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.doAnswer;
+
+// The primary database doubles as the replica: connections from the replica pool are read-only
+@TestPropertySource(properties = "app.datasource.replica.urls=${spring.datasource.url}")
+public class ReadReplicaRoutingTest extends AbstractIntegrationTest {
+
+    @MockitoSpyBean
+    private ReplicaRoutingDataSource replicaDataSource;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    @Qualifier("readOnlyTransactionTemplate")
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long userId;
+
+    // isReadOnly() of each checked-out connection: only the replica pool hands out read-only connections
+    private final List<Boolean> replicaConnections = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        doAnswer(invocation -> {
+            Connection connection = (Connection) invocation.callRealMethod();
+            replicaConnections.add(connection.isReadOnly());
+            return connection;
+        }).when(replicaDataSource).getConnection();
+
+        User user = new User("Test", "User", "replica@example.com", passwordEncoder.encode("Password123"));
+        user.setEnabled(true);
+        userId = userRepository.save(user).getId();
+        // Lookups must reach the database, not the second-level cache
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        // The primary reports no replay lag, so the replica joins the rotation right away
+        replicaDataSource.refreshReplicaLag();
+        replicaConnections.clear();
+    }
+
+    @AfterEach
+    public void clearDatabase() {
+        jdbcTemplate.execute("DELETE FROM users");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    @Test
+    public void testFindByEmailInReadOnlyTransactionUsesReadOnlyDataSource() throws Exception {
+        User user = readOnlyTransactionTemplate.execute(status ->
+                userRepository.findByEmail("replica@example.com").orElseThrow());
+
+        assertEquals(userId, user.getId());
+        assertEquals(List.of(true), replicaConnections);
+        // A possibly lagging row does not end up in the second-level cache
+        assertFalse(entityManagerFactory.getCache().contains(User.class, userId));
+    }
+
+    @Test
+    public void testFindByEmailOutsideTransactionUsesPrimary() throws Exception {
+        userRepository.findByEmail("replica@example.com").orElseThrow();
+
+        assertEquals(List.of(false), replicaConnections);
+    }
+
+    @Test
+    public void testLoginLooksUpUserOnReadOnlyDataSource() throws Exception {
+        authenticationService.authenticate(new LoginUserDto("replica@example.com", "Password123"));
+
+        // The user lookup reads from the replica; recording the login attempt writes to the primary
+        assertEquals(true, replicaConnections.get(0));
+    }
+}
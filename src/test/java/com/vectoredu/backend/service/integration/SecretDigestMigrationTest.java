@@ -0,0 +1,100 @@
+package com.vectoredu.backend.service.integration;
+
+import com.vectoredu.backend.config.SecretDigestMigration;
+import com.vectoredu.backend.service.config.AbstractIntegrationTest;
+import com.vectoredu.backend.util.SecretDigest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class SecretDigestMigrationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private SecretDigestMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void clearDatabase() {
+        jdbcTemplate.execute("""
+            DELETE FROM reset_password;
+            DELETE FROM users;
+            ALTER TABLE users DROP COLUMN IF EXISTS verification_code;
+            ALTER TABLE reset_password DROP COLUMN IF EXISTS token;
+        """);
+    }
+
+    @Test
+    public void testLegacySecretsAreReplacedByDigests() {
+        Long userId = createLegacyRows();
+
+        migration.run(null);
+
+        byte[] codeHash = jdbcTemplate.queryForObject(
+                "SELECT verification_code_hash FROM users WHERE id = ?", byte[].class, userId);
+        byte[] tokenHash = jdbcTemplate.queryForObject(
+                "SELECT token_hash FROM reset_password WHERE user_id = ?", byte[].class, userId);
+        assertArrayEquals(SecretDigest.verificationCode("legacy@example.com", "123456"), codeHash);
+        assertArrayEquals(SecretDigest.sha256("legacy-token"), tokenHash);
+        // No plain-text secret stays in the database once its digest is written
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT verification_code FROM users WHERE id = ?", String.class, userId));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT token FROM reset_password WHERE user_id = ?", String.class, userId));
+        // Nodes of the previous version still use the plain columns during a rolling deploy
+        assertEquals(2, legacyColumnCount());
+
+        // A node of the previous version issues a new code after the migration: the next run replaces the stale digest
+        jdbcTemplate.update("UPDATE users SET verification_code = '654321' WHERE id = ?", userId);
+        migration.run(null);
+        assertArrayEquals(SecretDigest.verificationCode("legacy@example.com", "654321"), jdbcTemplate.queryForObject(
+                "SELECT verification_code_hash FROM users WHERE id = ?", byte[].class, userId));
+        assertNull(jdbcTemplate.queryForObject(
+                "SELECT verification_code FROM users WHERE id = ?", String.class, userId));
+        assertEquals(2, legacyColumnCount());
+    }
+
+    @Test
+    public void testLegacyColumnsAreDroppedWhenEnabled() {
+        createLegacyRows();
+        ReflectionTestUtils.setField(migration, "dropLegacyColumns", true);
+        try {
+            migration.run(null);
+            assertEquals(0, legacyColumnCount());
+
+            // Another node that started with the same setting finds nothing to drop
+            migration.run(null);
+        } finally {
+            ReflectionTestUtils.setField(migration, "dropLegacyColumns", false);
+        }
+    }
+
+    private Long createLegacyRows() {
+        // Recreate the pre-digest layout with plain-text secrets
+        jdbcTemplate.execute("ALTER TABLE users ADD COLUMN verification_code varchar(255)");
+        jdbcTemplate.execute("ALTER TABLE reset_password ADD COLUMN token varchar(255)");
+        jdbcTemplate.update("""
+            INSERT INTO users (first_name, last_name, email, password, verification_code, enabled)
+            VALUES ('Test', 'User', 'legacy@example.com', 'hash', '123456', false)
+        """);
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'legacy@example.com'", Long.class);
+        jdbcTemplate.update("INSERT INTO reset_password (user_id, token) VALUES (?, 'legacy-token')", userId);
+        return userId;
+    }
+
+    private Integer legacyColumnCount() {
+        return jdbcTemplate.queryForObject("""
+            SELECT count(*) FROM information_schema.columns
+            WHERE table_schema = current_schema()
+              AND ((table_name = 'users' AND column_name = 'verification_code')
+                OR (table_name = 'reset_password' AND column_name = 'token'))
+        """, Integer.class);
+    }
+}
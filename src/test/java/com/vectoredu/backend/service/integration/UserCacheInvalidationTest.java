@@ -0,0 +1,116 @@
+package com.vectoredu.backend.service.integration;
+
+import com.vectoredu.backend.model.User;
+import com.vectoredu.backend.repository.UserRepository;
+import com.vectoredu.backend.service.UserService;
+import com.vectoredu.backend.service.config.AbstractIntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserCacheInvalidationTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    public void clearDatabase() {
+        jdbcTemplate.execute("DELETE FROM users");
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    private String cachedFirstName(Long id) {
+        return userService.loadUserBySubject(String.valueOf(id)).getFirstName();
+    }
+
+    @Test
+    public void testUpdateThroughRepositoryEvictsLocalEntry() {
+        Long id = userRepository.save(new User("Test", "User", "cache@example.com", "hash")).getId();
+        assertEquals("Test", cachedFirstName(id));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.findById(id).orElseThrow();
+            user.setFirstName("Changed");
+            userRepository.save(user);
+        });
+
+        assertEquals("Changed", cachedFirstName(id));
+    }
+
+    @Test
+    public void testNotificationFromAnotherNodeEvictsEntry() throws InterruptedException {
+        Long id = userRepository.save(new User("Test", "User", "cache@example.com", "hash")).getId();
+        assertEquals("Test", cachedFirstName(id));
+
+        // A write on another node: the row changes behind this node's cache
+        jdbcTemplate.update("UPDATE users SET first_name = 'Remote' WHERE id = ?", id);
+        assertEquals("Test", cachedFirstName(id));
+
+        String firstName = "Test";
+        for (int i = 0; i < 50 && !firstName.equals("Remote"); i++) {
+            jdbcTemplate.queryForObject("SELECT pg_notify('user_cache', ?)", Object.class, String.valueOf(id));
+            Thread.sleep(100);
+            firstName = cachedFirstName(id);
+        }
+        assertEquals("Remote", firstName);
+    }
+
+    @Test
+    public void testFindByEmailResolvesFromSecondLevelCache() {
+        Long id = userRepository.save(new User("Test", "User", "cache@example.com", "hash")).getId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userRepository.findByEmail("cache@example.com");
+        long naturalIdHits = statistics.getNaturalIdCacheHitCount();
+        long entityHits = statistics.getSecondLevelCacheHitCount();
+
+        assertEquals(id, userRepository.findByEmail("cache@example.com").orElseThrow().getId());
+
+        assertEquals(naturalIdHits + 1, statistics.getNaturalIdCacheHitCount());
+        assertEquals(entityHits + 1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    public void testRemovalNotificationEvictsOnlyThatEmailMapping() throws InterruptedException {
+        Long keptId = userRepository.save(new User("Kept", "User", "kept@example.com", "hash")).getId();
+        Long removedId = userRepository.save(new User("Removed", "User", "removed@example.com", "hash")).getId();
+        userRepository.findByEmail("kept@example.com");
+        userRepository.findByEmail("removed@example.com");
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Another node updated one user and deleted the other: only the deleted email may be reused by a new row
+        String payload = keptId + "," + removedId + ":removed@example.com";
+        boolean evicted = false;
+        for (int i = 0; i < 50 && !evicted; i++) {
+            jdbcTemplate.queryForObject("SELECT pg_notify('user_cache', ?)", Object.class, payload);
+            Thread.sleep(100);
+            long naturalIdHits = statistics.getNaturalIdCacheHitCount();
+            userRepository.findByEmail("removed@example.com");
+            evicted = statistics.getNaturalIdCacheHitCount() == naturalIdHits;
+        }
+        assertTrue(evicted);
+
+        long naturalIdHits = statistics.getNaturalIdCacheHitCount();
+        assertEquals(keptId, userRepository.findByEmail("kept@example.com").orElseThrow().getId());
+        assertEquals(naturalIdHits + 1, statistics.getNaturalIdCacheHitCount());
+    }
+}
@@ -7,23 +7,31 @@ import com.vectoredu.backend.model.User;
 import com.vectoredu.backend.repository.UserRepository;
 import com.vectoredu.backend.service.AuthenticationService;
 import com.vectoredu.backend.service.EmailService;
+import com.vectoredu.backend.service.LoginAttemptService;
 import com.vectoredu.backend.service.PasswordService;
+import com.vectoredu.backend.util.SecretDigest;
+import com.vectoredu.backend.util.SecretGenerator;
+import com.vectoredu.backend.util.exception.AccountLockedException;
+import com.vectoredu.backend.util.exception.KnownUseCaseException;
+import com.vectoredu.backend.util.exception.UnauthorizedException;
 import com.vectoredu.backend.util.exception.UserException;
 import com.vectoredu.backend.util.exception.ValidationException;
 import com.vectoredu.backend.util.exception.VerificationException;
-import com.vectoredu.backend.util.validators.EmailValidator;
-import com.vectoredu.backend.util.validators.PasswordValidator;
 import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,19 +45,19 @@ class AuthenticationServiceTest {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private EmailService emailService;
 
     @Mock
-    private EmailService emailService;
+    private PasswordService passwordService;
 
     @Mock
-    private EmailValidator emailValidator;
+    private LoginAttemptService loginAttemptService;
 
     @Mock
-    private PasswordValidator passwordValidator;
+    private TransactionTemplate transactionTemplate;
 
     @Mock
-    private PasswordService passwordService;
+    private SecretGenerator secretGenerator;
 
     @InjectMocks
     private AuthenticationService authenticationService;
@@ -57,29 +65,15 @@ class AuthenticationServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-    }
-
-    @Test
-    void signup_ShouldThrowValidationException_WhenEmailIsInvalid() {
-        RegisterUserDto input = new RegisterUserDto("invalidemail", "Test", "User", "Password1");
-
-        when(emailValidator.isValid(input.getEmail(), null)).thenReturn(false);
-
-        assertThrows(ValidationException.class, () -> authenticationService.signup(input));
-
-        verify(userRepository, never()).save(any(User.class));
-    }
-
-    @Test
-    void signup_ShouldThrowValidationException_WhenPasswordIsInvalid() {
-        RegisterUserDto input = new RegisterUserDto("email@example.com", "Test", "User", "pass");
-
-        when(emailValidator.isValid(input.getEmail(), null)).thenReturn(true);
-        when(passwordValidator.isValid(input.getPassword(), null)).thenReturn(false);
-
-        assertThrows(ValidationException.class, () -> authenticationService.signup(input));
-
-        verify(userRepository, never()).save(any(User.class));
+        // The dummy hash is encoded once when the service is constructed
+        clearInvocations(passwordEncoder);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(secretGenerator.verificationCode()).thenReturn("654321");
     }
 
     @Test
@@ -95,8 +89,6 @@ class AuthenticationServiceTest {
                 .enabled(false)
                 .build();
 
-        when(emailValidator.isValid(input.getEmail(), null)).thenReturn(true);
-        when(passwordValidator.isValid(input.getPassword(), null)).thenReturn(true);
         when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.empty());
         when(passwordEncoder.encode(input.getPassword())).thenReturn("encodedPassword");
         when(userRepository.save(any(User.class))).thenReturn(userToSave);
@@ -117,6 +109,35 @@ class AuthenticationServiceTest {
         when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.empty());
 
         assertThrows(UserException.class, () -> authenticationService.authenticate(input));
+        // A single BCrypt comparison, as for a known user with a wrong password
+        verify(passwordEncoder).matches(eq(input.getPassword()), any());
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, times(1)).findByEmail(input.getEmail());
+    }
+
+    @Test
+    void authenticate_ShouldThrowAccountLockedException_WhenAccountIsBlocked() {
+        LoginUserDto input = new LoginUserDto("email@example.com", "Password1");
+
+        when(loginAttemptService.isBlocked(input.getEmail())).thenReturn(true);
+
+        assertThrows(AccountLockedException.class, () -> authenticationService.authenticate(input));
+        verifyNoInteractions(userRepository, passwordEncoder);
+    }
+
+    @Test
+    void authenticate_ShouldRecordFailure_WhenPasswordIsWrong() {
+        LoginUserDto input = new LoginUserDto("email@example.com", "WrongPassword1");
+        User user = new User();
+        user.setEnabled(true);
+        user.setPassword("encodedPassword");
+
+        when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches(input.getPassword(), "encodedPassword")).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> authenticationService.authenticate(input));
+        verify(loginAttemptService).loginFailed(input.getEmail());
+        verify(passwordEncoder, times(1)).matches(any(), any());
     }
 
     @Test
@@ -134,7 +155,8 @@ class AuthenticationServiceTest {
     void verifyUser_ShouldEnableUser_WhenVerificationCodeIsValid() {
         VerifyUserDto input = new VerifyUserDto("email@example.com", "123456");
         User user = new User();
-        user.setVerificationCode("123456");
+        user.setEmail("email@example.com");
+        user.setVerificationCodeHash(SecretDigest.verificationCode("email@example.com", "123456"));
         user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(10));
 
         when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.of(user));
@@ -142,16 +164,49 @@ class AuthenticationServiceTest {
         authenticationService.verifyUser(input);
 
         assertTrue(user.isEnabled());
-        assertNull(user.getVerificationCode());
+        assertNull(user.getVerificationCodeHash());
         assertNull(user.getVerificationCodeExpiresAt());
         verify(userRepository).save(user);
     }
 
+    @Test
+    void verifyUser_ShouldThrowKnownUseCaseException_WhenUserIsAlreadyVerified() {
+        VerifyUserDto input = new VerifyUserDto("email@example.com", "123456");
+        User user = new User();
+        user.setEnabled(true);
+
+        when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.of(user));
+
+        // A fresh request is not treated as a successful retry: the code was never checked
+        assertThrows(KnownUseCaseException.class, () -> authenticationService.verifyUser(input));
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void verifyUser_ShouldRetry_WhenVersionConflicts() {
+        VerifyUserDto input = new VerifyUserDto("email@example.com", "123456");
+        User stale = new User();
+        stale.setEmail("email@example.com");
+        stale.setVerificationCodeHash(SecretDigest.verificationCode("email@example.com", "123456"));
+        stale.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(10));
+        User verifiedConcurrently = new User();
+        verifiedConcurrently.setEnabled(true);
+
+        when(userRepository.findByEmail(input.getEmail()))
+                .thenReturn(Optional.of(stale), Optional.of(verifiedConcurrently));
+        when(userRepository.save(stale)).thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        authenticationService.verifyUser(input);
+
+        verify(userRepository, times(2)).findByEmail(input.getEmail());
+    }
+
     @Test
     void verifyUser_ShouldThrowValidationException_WhenVerificationCodeIsInvalid() {
         VerifyUserDto input = new VerifyUserDto("email@example.com", "wrongCode");
         User user = new User();
-        user.setVerificationCode("123456");
+        user.setEmail("email@example.com");
+        user.setVerificationCodeHash(SecretDigest.verificationCode("email@example.com", "123456"));
         user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(10));
 
         when(userRepository.findByEmail(input.getEmail())).thenReturn(Optional.of(user));
@@ -172,6 +227,8 @@ class AuthenticationServiceTest {
         authenticationService.resendVerificationCode(email);
 
         verify(userRepository).save(any(User.class));
-        verify(emailService).sendVerificationEmail(any(), any(), any());
+        // Only the digest is persisted, the plain code goes to the email
+        assertArrayEquals(SecretDigest.verificationCode(email, user.getVerificationCode()), user.getVerificationCodeHash());
+        verify(emailService).sendVerificationEmail(eq(email), any(), contains(user.getVerificationCode()));
     }
 }
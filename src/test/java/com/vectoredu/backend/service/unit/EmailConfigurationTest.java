@@ -0,0 +1,37 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.config.EmailConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EmailConfigurationTest {
+
+    @Test
+    void javaMailSender_ShouldApplySpringMailSettings() {
+        MailProperties mailProperties = new MailProperties();
+        mailProperties.setHost("smtp.example.com");
+        mailProperties.setPort(2525);
+        mailProperties.setUsername("support@example.com");
+        mailProperties.setPassword("secret");
+        mailProperties.getProperties().put("mail.smtp.connectiontimeout", "5000");
+        mailProperties.getProperties().put("mail.smtp.timeout", "5000");
+        mailProperties.getProperties().put("mail.smtp.writetimeout", "5000");
+
+        JavaMailSenderImpl sender = (JavaMailSenderImpl) new EmailConfiguration().javaMailSender(mailProperties, false);
+
+        assertEquals("smtp.example.com", sender.getHost());
+        assertEquals(2525, sender.getPort());
+        assertEquals("support@example.com", sender.getUsername());
+        // Without the socket timeouts a slow SMTP server blocks the sending thread indefinitely
+        Properties props = sender.getJavaMailProperties();
+        assertEquals("5000", props.getProperty("mail.smtp.connectiontimeout"));
+        assertEquals("5000", props.getProperty("mail.smtp.timeout"));
+        assertEquals("5000", props.getProperty("mail.smtp.writetimeout"));
+        assertEquals("false", props.getProperty("mail.debug"));
+    }
+}
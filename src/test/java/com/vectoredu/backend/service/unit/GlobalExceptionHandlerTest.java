@@ -0,0 +1,69 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.util.ErrorResponse;
+import com.vectoredu.backend.util.GlobalExceptionHandler;
+import com.vectoredu.backend.util.exception.*;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalExceptionHandlerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private GlobalExceptionHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        handler = new GlobalExceptionHandler(meterRegistry);
+    }
+
+    @Test
+    void domainExceptions_DoNotCaptureStackTrace() {
+        List<RuntimeException> exceptions = List.of(
+                new AccountLockedException("m"), new KnownUseCaseException("m"), new UnauthorizedException("m"),
+                new UserException("m"), new ValidationException("m"), new VerificationException("m"));
+
+        for (RuntimeException exception : exceptions) {
+            assertEquals(0, exception.getStackTrace().length, exception.getClass().getSimpleName());
+            assertEquals("m", exception.getMessage());
+        }
+    }
+
+    @Test
+    void generalException_KeepsStackTrace() {
+        assertTrue(new GeneralException("m").getStackTrace().length > 0);
+    }
+
+    @Test
+    void handleUnauthorizedException_CountsExpectedFailure() {
+        for (int i = 0; i < 3; i++) {
+            ResponseEntity<ErrorResponse> response =
+                    handler.handleUnauthorizedException(new UnauthorizedException("Данные введены некорректно"));
+
+            assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+            assertEquals("Данные введены некорректно", response.getBody().getMessage());
+        }
+
+        assertEquals(3, meterRegistry.get("app.errors.expected")
+                .tag("exception", "UnauthorizedException")
+                .tag("status", "401")
+                .counter().count());
+    }
+
+    @Test
+    void handleJwtException_ReturnsUnauthorized() {
+        ResponseEntity<ErrorResponse> response =
+                handler.handleJwtException(new ExpiredJwtException(null, null, "expired"));
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        assertEquals("Недействительный токен", response.getBody().getMessage());
+    }
+}
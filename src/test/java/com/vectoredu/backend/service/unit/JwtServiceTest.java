@@ -0,0 +1,269 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.model.User;
+import com.vectoredu.backend.service.JwtKeyService;
+import com.vectoredu.backend.service.JwtService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyPair;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String LEGACY_SECRET = "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0";
+    private static final long ROTATION = Duration.ofDays(7).toMillis();
+    private static final long JWKS_MAX_AGE = Duration.ofDays(1).toMillis();
+    private static final long TOKEN_LIFETIME = Duration.ofDays(60).toMillis();
+
+    private final User user = User.builder().id(42L).email("email@example.com").build();
+
+    private JwtKeyService keyService;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2026-01-01T00:00:00Z");
+        keyService = keyService("", "");
+    }
+
+    private JwtKeyService keyService(String keysLocation, String signingKeyId) {
+        JwtKeyService service = new JwtKeyService();
+        ReflectionTestUtils.setField(service, "keysLocation", keysLocation);
+        ReflectionTestUtils.setField(service, "signingKeyId", signingKeyId);
+        ReflectionTestUtils.setField(service, "generatedKeysAllowed", true);
+        ReflectionTestUtils.setField(service, "rotationIntervalMillis", ROTATION);
+        ReflectionTestUtils.setField(service, "jwksMaxAgeMillis", JWKS_MAX_AGE);
+        ReflectionTestUtils.setField(service, "maxTokenLifetimeMillis", TOKEN_LIFETIME);
+        setClock(service);
+        service.init();
+        return service;
+    }
+
+    private void setClock(JwtKeyService service) {
+        ReflectionTestUtils.setField(service, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private void advance(Duration duration) {
+        now = now.plus(duration);
+        setClock(keyService);
+        keyService.refresh();
+    }
+
+    private JwtService jwtService(JwtKeyService keys, String legacySecret) {
+        JwtService service = new JwtService(keys);
+        ReflectionTestUtils.setField(service, "secretKey", legacySecret);
+        ReflectionTestUtils.setField(service, "jwtExpirationMillis", 900000L);
+        ReflectionTestUtils.setField(service, "refreshTokenExpirationMillis", TOKEN_LIFETIME);
+        service.init();
+        return service;
+    }
+
+    @Test
+    void generateToken_ShouldSignWithKeyIdAndVerify() {
+        JwtService jwtService = jwtService(keyService, "");
+
+        String token = jwtService.generateToken(user).token();
+
+        assertEquals("42", jwtService.extractSubject(token));
+        assertTrue(jwtService.isIssuedTo(jwtService.extractAllClaims(token), user));
+        assertTrue(keyService.jwks().contains(keyService.signingKey().id()));
+    }
+
+    @Test
+    void rotation_ShouldPublishNewKeyBeforeSigningAndKeepOldKeyForIssuedTokens() {
+        JwtService jwtService = jwtService(keyService, "");
+        String firstKey = keyService.signingKey().id();
+        String oldToken = jwtService.generateRefreshToken(user).token();
+
+        advance(Duration.ofMillis(ROTATION));
+        // The new key is already published but the old one keeps signing until caches expire
+        assertEquals(firstKey, keyService.signingKey().id());
+        assertEquals(2, keyService.jwks().split("\"kid\"").length - 1);
+
+        advance(Duration.ofMillis(JWKS_MAX_AGE));
+        assertNotEquals(firstKey, keyService.signingKey().id());
+        assertNotNull(keyService.verificationKey(firstKey));
+        assertEquals("42", jwtService.extractSubject(oldToken));
+
+        // Once every token of the old key has expired it is dropped from the set
+        advance(Duration.ofMillis(TOKEN_LIFETIME));
+        assertNull(keyService.verificationKey(firstKey));
+        assertFalse(keyService.jwks().contains(firstKey));
+    }
+
+    @Test
+    void parse_ShouldRejectUnknownKeyId() {
+        JwtService jwtService = jwtService(keyService, "");
+        KeyPair foreign = Jwks.CRV.Ed25519.keyPair().build();
+        String token = Jwts.builder()
+                .header().keyId("foreign").and()
+                .subject("email@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(foreign.getPrivate(), Jwts.SIG.EdDSA)
+                .compact();
+
+        assertThrows(UnsupportedJwtException.class, () -> jwtService.extractSubject(token));
+    }
+
+    @Test
+    void parse_ShouldAcceptLegacyHmacToken_OnlyWhenSecretIsConfigured() {
+        String token = Jwts.builder()
+                .subject("email@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(LEGACY_SECRET)), Jwts.SIG.HS256)
+                .compact();
+
+        assertEquals("email@example.com", jwtService(keyService, LEGACY_SECRET).extractSubject(token));
+        assertThrows(UnsupportedJwtException.class, () -> jwtService(keyService, "").extractSubject(token));
+    }
+
+    @Test
+    void parse_ShouldRejectHmacTokenSignedWithPublishedKeyId() {
+        JwtService jwtService = jwtService(keyService, LEGACY_SECRET);
+        String token = Jwts.builder()
+                .header().keyId(keyService.signingKey().id()).and()
+                .subject("email@example.com")
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(LEGACY_SECRET)), Jwts.SIG.HS256)
+                .compact();
+
+        assertThrows(RuntimeException.class, () -> jwtService.extractSubject(token));
+    }
+
+    @Test
+    void keysFile_ShouldSignWithConfiguredKeyAndVerifyWithAll(@TempDir Path dir) throws Exception {
+        KeyPair rsa = Jwts.SIG.RS256.keyPair().build();
+        KeyPair ed = Jwks.CRV.Ed25519.keyPair().build();
+        String rsaJwk = Jwks.UNSAFE_JSON(Jwks.builder().key(rsa.getPrivate()).publicKey(rsa.getPublic()).id("rsa").build());
+        String edJwk = Jwks.UNSAFE_JSON(Jwks.builder().octetKey(ed.getPrivate()).publicKey(ed.getPublic()).id("ed").build());
+        Path file = dir.resolve("jwks.json");
+        Files.writeString(file, "{\"keys\":[" + rsaJwk + "," + edJwk + "]}");
+
+        JwtKeyService fileKeys = keyService(file.toString(), "ed");
+        JwtService jwtService = jwtService(fileKeys, "");
+
+        assertEquals("ed", fileKeys.signingKey().id());
+        assertNotNull(fileKeys.verificationKey("rsa"));
+        String token = jwtService.generateToken(new HashMap<>(), "email@example.com", 60000).token();
+        assertEquals("email@example.com", jwtService.extractSubject(token));
+        // Only public parts are published
+        assertFalse(fileKeys.jwks().contains("\"d\""));
+        assertTrue(fileKeys.jwks().contains("\"kid\":\"rsa\""));
+    }
+
+    @Test
+    void keysFile_ShouldKeepPreviousKeys_WhenReloadFails(@TempDir Path dir) throws Exception {
+        KeyPair ed = Jwks.CRV.Ed25519.keyPair().build();
+        Path file = dir.resolve("jwks.json");
+        Files.writeString(file, "{\"keys\":[" + Jwks.UNSAFE_JSON(Jwks.builder().octetKey(ed.getPrivate()).publicKey(ed.getPublic()).id("ed").build()) + "]}");
+        JwtKeyService fileKeys = keyService(file.toString(), "");
+
+        Files.writeString(file, "{broken");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10000));
+        fileKeys.refresh();
+
+        assertEquals("ed", fileKeys.signingKey().id());
+    }
+
+    @Test
+    void init_ShouldFail_WhenKeysFileIsMissingAndGeneratedKeysAreNotAllowed() {
+        JwtKeyService service = new JwtKeyService();
+        ReflectionTestUtils.setField(service, "keysLocation", "");
+        ReflectionTestUtils.setField(service, "generatedKeysAllowed", false);
+
+        // Per-instance keys would make tokens from one node unverifiable on another
+        assertThrows(IllegalStateException.class, service::init);
+    }
+
+    @Test
+    void verifyingWithWrongKey_ShouldFail() {
+        JwtService jwtService = jwtService(keyService, "");
+        String token = jwtService.generateToken(user).token();
+        String tampered = token.substring(0, token.lastIndexOf('.') + 1) + "AAAA" + token.substring(token.lastIndexOf('.') + 5);
+
+        assertThrows(SignatureException.class, () -> jwtService.extractSubject(tampered));
+    }
+
+    @Test
+    void generateToken_ShouldProduceCompactAccessToken() {
+        JwtService jwtService = jwtService(keyService, "");
+
+        String token = jwtService.generateToken(user).token();
+        String payload = new String(Base64.getUrlDecoder().decode(token.split("\\.")[1]));
+
+        // Only sub and exp, no iat or email
+        assertTrue(payload.matches("\\{\"sub\":\"42\",\"exp\":\\d+}"), payload);
+        assertTrue(token.length() < 200, token);
+    }
+
+    @Test
+    void isIssuedTo_ShouldAcceptLegacyEmailSubject() {
+        JwtService jwtService = jwtService(keyService, "");
+        String token = jwtService.generateToken(Map.of(), "email@example.com", 60000).token();
+
+        assertTrue(jwtService.isIssuedTo(jwtService.extractAllClaims(token), user));
+        assertNull(JwtService.userId("email@example.com"));
+        assertEquals(42L, JwtService.userId("42"));
+    }
+
+    @Test
+    void generateToken_ShouldRejectUnboundedExtraClaims() {
+        JwtService jwtService = jwtService(keyService, "");
+        Map<String, Object> tooMany = new HashMap<>();
+        for (int i = 0; i < 9; i++) {
+            tooMany.put("c" + i, i);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> jwtService.generateToken(tooMany, "42", 60000));
+        assertThrows(IllegalArgumentException.class, () -> jwtService.generateToken(Map.of("sub", "1"), "42", 60000));
+        assertThrows(IllegalArgumentException.class, () -> jwtService.generateToken(Map.of("big", "x".repeat(2000)), "42", 60000));
+    }
+
+    @Test
+    void generateToken_ShouldCompressLargeExtraClaims() {
+        JwtService jwtService = jwtService(keyService, "");
+        String scopes = "scope ".repeat(100);
+
+        String token = jwtService.generateToken(Map.of("scp", scopes), "42", 60000).token();
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+
+        assertTrue(header.contains("\"zip\":\"DEF\""), header);
+        assertTrue(token.length() < scopes.length());
+        assertEquals(scopes, jwtService.extractAllClaims(token).get("scp", String.class));
+    }
+
+    @Test
+    void generateToken_ShouldReportExpiryOfTheIssuedToken() {
+        JwtService jwtService = jwtService(keyService, "");
+        Instant before = Instant.now();
+
+        JwtService.IssuedToken issued = jwtService.generateToken(user);
+
+        Date exp = jwtService.extractAllClaims(issued.token()).getExpiration();
+        assertEquals(exp.toInstant(), issued.expiresAt());
+        assertFalse(issued.expiresAt().isBefore(before.plusMillis(900000).minusSeconds(1)));
+        // Proactive refresh falls between 75% and 90% of the lifetime
+        assertFalse(issued.refreshAfter().isBefore(before.plusMillis(675000)));
+        assertTrue(issued.refreshAfter().isBefore(issued.expiresAt().minusMillis(89000)));
+    }
+}
@@ -0,0 +1,94 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.model.LoginAttempt;
+import com.vectoredu.backend.repository.LoginAttemptRepository;
+import com.vectoredu.backend.service.LoginAttemptService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class LoginAttemptServiceTest {
+
+    @Mock
+    private LoginAttemptRepository loginAttemptRepository;
+
+    @InjectMocks
+    private LoginAttemptService loginAttemptService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(loginAttemptService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(loginAttemptService, "attemptWindowMillis", 60_000L);
+        ReflectionTestUtils.setField(loginAttemptService, "lockDurationMillis", 60_000L);
+        when(loginAttemptRepository.findAllById(anyList())).thenReturn(List.of());
+    }
+
+    @Test
+    void isBlocked_ShouldLockAccount_WhenMaxAttemptsReached() {
+        String email = "email@example.com";
+
+        loginAttemptService.loginFailed(email);
+        loginAttemptService.loginFailed(email);
+        assertFalse(loginAttemptService.isBlocked(email));
+
+        loginAttemptService.loginFailed(email);
+        assertTrue(loginAttemptService.isBlocked(email));
+    }
+
+    @Test
+    void loginFailed_ShouldNotTouchStorage_UntilFlush() {
+        String email = "email@example.com";
+
+        loginAttemptService.loginFailed(email);
+        loginAttemptService.loginFailed(email);
+
+        verifyNoInteractions(loginAttemptRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldCoalesceAttemptsIntoSingleRow() {
+        String email = "email@example.com";
+
+        loginAttemptService.loginFailed(email);
+        loginAttemptService.loginFailed(email);
+        loginAttemptService.flush();
+
+        ArgumentCaptor<List<LoginAttempt>> captor = ArgumentCaptor.forClass(List.class);
+        verify(loginAttemptRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(2, captor.getValue().get(0).getFailedAttempts());
+        assertNull(captor.getValue().get(0).getLockedUntil());
+    }
+
+    @Test
+    void flush_ShouldDeleteRow_WhenLoginSucceeded() {
+        String email = "email@example.com";
+
+        loginAttemptService.loginFailed(email);
+        loginAttemptService.loginSucceeded(email);
+        loginAttemptService.flush();
+
+        assertFalse(loginAttemptService.isBlocked(email));
+        verify(loginAttemptRepository).deleteAllByIdInBatch(List.of(email));
+    }
+
+    @Test
+    void flush_ShouldDoNothing_WhenNoAttemptsRecorded() {
+        loginAttemptService.loginSucceeded("email@example.com");
+        loginAttemptService.flush();
+
+        verifyNoInteractions(loginAttemptRepository);
+    }
+}
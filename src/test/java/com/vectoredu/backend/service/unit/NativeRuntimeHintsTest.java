@@ -0,0 +1,60 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.cache.UserCacheInvalidator;
+import com.vectoredu.backend.config.NativeRuntimeHints;
+import com.vectoredu.backend.model.User;
+import com.vectoredu.backend.util.logging.SamplingFilter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NativeRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new NativeRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_CoversClassesJjwtLoadsByName() {
+        // The builders behind the JJWT calls the app makes are instantiated reflectively by jjwt-api
+        for (Object builder : new Object[]{Jwts.builder(), Jwts.parser(), Jwks.builder(), Jwks.parser()}) {
+            assertTrue(RuntimeHintsPredicates.reflection()
+                    .onType(builder.getClass())
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                    .test(hints), builder.getClass().getName());
+        }
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("io.jsonwebtoken.jackson.io.JacksonDeserializer"))
+                .test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Deserializer").test(hints));
+    }
+
+    @Test
+    void registerHints_CoversSecondLevelCacheConfiguration() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("application.conf").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"))
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)
+                .test(hints));
+    }
+
+    @Test
+    void registerHints_CoversClassesInstantiatedByFrameworks() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(SamplingFilter.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(UserCacheInvalidator.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(User.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)
+                .test(hints));
+    }
+}
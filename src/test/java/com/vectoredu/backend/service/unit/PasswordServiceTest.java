@@ -6,6 +6,8 @@ import com.vectoredu.backend.repository.PasswordResetTokenRepository;
 import com.vectoredu.backend.repository.UserRepository;
 import com.vectoredu.backend.service.EmailService;
 import com.vectoredu.backend.service.PasswordService;
+import com.vectoredu.backend.util.SecretDigest;
+import com.vectoredu.backend.util.SecretGenerator;
 import com.vectoredu.backend.util.exception.UserException;
 import com.vectoredu.backend.util.exception.ValidationException;
 import com.vectoredu.backend.util.validators.PasswordValidator;
@@ -15,17 +17,24 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 class PasswordServiceTest {
 
+    private static final String TOKEN = "reset-token";
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
@@ -41,6 +50,12 @@ class PasswordServiceTest {
     @Mock
     private PasswordValidator passwordValidator;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SecretGenerator secretGenerator;
+
     @InjectMocks
     private PasswordService passwordService;
 
@@ -50,12 +65,18 @@ class PasswordServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
         user = new User();
         user.setEmail("email@example.com");
         user.setEnabled(true);
         user.setPassword("encodedPassword");
 
-        passwordResetToken = new PasswordResetToken(user, UUID.randomUUID().toString(), LocalDateTime.now().plusMinutes(5));
+        passwordResetToken = new PasswordResetToken(user, SecretDigest.sha256(TOKEN), LocalDateTime.now().plusMinutes(5));
     }
 
     @Test
@@ -74,7 +95,7 @@ class PasswordServiceTest {
         String token = "expiredToken";
         passwordResetToken.setExpirationDate(LocalDateTime.now().minusMinutes(1));
 
-        when(passwordResetTokenRepository.findByToken(token)).thenReturn(Optional.of(passwordResetToken));
+        when(passwordResetTokenRepository.findByTokenHash(SecretDigest.sha256(token))).thenReturn(Optional.of(passwordResetToken));
 
         assertThrows(ValidationException.class, () -> passwordService.resetPassword(token, "NewPassword1"));
     }
@@ -87,7 +108,7 @@ class PasswordServiceTest {
 
         passwordResetToken.setExpirationDate(LocalDateTime.now().plusMinutes(5));
 
-        when(passwordResetTokenRepository.findByToken(token)).thenReturn(Optional.of(passwordResetToken));
+        when(passwordResetTokenRepository.findByTokenHash(SecretDigest.sha256(token))).thenReturn(Optional.of(passwordResetToken));
 
         when(passwordValidator.isValid(invalidPassword, null)).thenReturn(false);
 
@@ -95,6 +116,37 @@ class PasswordServiceTest {
         verify(userRepository, never()).save(any(User.class));
     }
 
+    @Test
+    void resetPassword_ShouldUpdatePasswordAndDeleteToken() {
+        String token = TOKEN;
+
+        when(passwordResetTokenRepository.findByTokenHash(SecretDigest.sha256(token))).thenReturn(Optional.of(passwordResetToken));
+        when(passwordValidator.isValid("NewPassword1", null)).thenReturn(true);
+        when(passwordEncoder.encode("NewPassword1")).thenReturn("newEncoded");
+
+        passwordService.resetPassword(token, "NewPassword1");
+
+        assertEquals("newEncoded", user.getPassword());
+        verify(userRepository).save(user);
+        verify(passwordResetTokenRepository).delete(passwordResetToken);
+    }
+
+    @Test
+    void resetPassword_ShouldRejectToken_WhenUsedConcurrently() {
+        String token = TOKEN;
+
+        // The early check sees the token, the first attempt conflicts, the retry finds it consumed
+        when(passwordResetTokenRepository.findByTokenHash(SecretDigest.sha256(token)))
+                .thenReturn(Optional.of(passwordResetToken), Optional.of(passwordResetToken), Optional.empty());
+        when(passwordValidator.isValid("NewPassword1", null)).thenReturn(true);
+        when(passwordEncoder.encode("NewPassword1")).thenReturn("newEncoded");
+        doThrow(new ObjectOptimisticLockingFailureException(PasswordResetToken.class, 1L))
+                .when(passwordResetTokenRepository).delete(passwordResetToken);
+
+        assertThrows(ValidationException.class, () -> passwordService.resetPassword(token, "NewPassword1"));
+        verify(passwordEncoder, times(1)).encode("NewPassword1");
+    }
+
     @Test
     void validateNewPassword_ShouldThrowValidationException_WhenPasswordIsInvalid() {
         String invalidPassword = "short";
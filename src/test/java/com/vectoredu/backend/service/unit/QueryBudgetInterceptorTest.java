@@ -0,0 +1,109 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.config.QueryBudgetInterceptor;
+import com.vectoredu.backend.util.query.QueryBudget;
+import com.vectoredu.backend.util.query.QueryCountInspector;
+import com.vectoredu.backend.util.query.QueryCounter;
+import com.vectoredu.backend.util.query.QueryCounterTaskDecorator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryBudgetInterceptorTest {
+
+    private final QueryCountInspector inspector = new QueryCountInspector();
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/test");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        QueryCounter.unbind();
+    }
+
+    @Test
+    void preHandle_UsesMethodBudgetOverControllerBudget() throws Exception {
+        new QueryBudgetInterceptor(10, true).preHandle(request, response, handler("annotated"));
+
+        assertEquals(1, QueryCounter.current().getBudget());
+    }
+
+    @Test
+    void preHandle_FallsBackToControllerBudget() throws Exception {
+        new QueryBudgetInterceptor(10, true).preHandle(request, response, handler("inherited"));
+
+        assertEquals(3, QueryCounter.current().getBudget());
+    }
+
+    @Test
+    void inspect_ThrowsOnStatementOverBudget_WhenFailFast() throws Exception {
+        new QueryBudgetInterceptor(10, true).preHandle(request, response, handler("annotated"));
+
+        inspector.inspect("select 1");
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> inspector.inspect("select 2"));
+        assertTrue(exception.getMessage().contains("select 2"));
+    }
+
+    @Test
+    void inspect_OnlyCounts_WhenLogging() throws Exception {
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(10, false);
+        interceptor.preHandle(request, response, handler("annotated"));
+
+        inspector.inspect("select 1");
+        assertDoesNotThrow(() -> inspector.inspect("select 2"));
+        QueryCounter counter = QueryCounter.current();
+        interceptor.afterCompletion(request, response, handler("annotated"), null);
+
+        assertTrue(counter.isExceeded());
+        assertNull(QueryCounter.current());
+    }
+
+    @Test
+    void asyncDispatch_ContinuesCountingWithSameCounter() throws Exception {
+        QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(10, true);
+        HandlerMethod handler = handler("annotated");
+        interceptor.preHandle(request, response, handler);
+        QueryCounter counter = QueryCounter.current();
+        interceptor.afterConcurrentHandlingStarted(request, response, handler);
+        assertNull(QueryCounter.current());
+
+        interceptor.preHandle(request, response, handler);
+
+        assertSame(counter, QueryCounter.current());
+    }
+
+    @Test
+    void taskDecorator_CountsStatementsOfPoolThreadsInRequestCounter() throws Exception {
+        new QueryBudgetInterceptor(10, true).preHandle(request, response, handler("inherited"));
+        Runnable task = new QueryCounterTaskDecorator().decorate(() -> inspector.inspect("select 1"));
+
+        Thread worker = new Thread(task);
+        worker.start();
+        worker.join();
+
+        assertEquals(1, QueryCounter.current().getCount());
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new BudgetedController(), BudgetedController.class.getMethod(method));
+    }
+
+    @QueryBudget(3)
+    static class BudgetedController {
+
+        @QueryBudget(1)
+        public void annotated() {
+        }
+
+        public void inherited() {
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.config.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private Connection primaryConnection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        // Replicas serve read-only transactions only
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_OutsideReadOnlyTransaction() throws SQLException {
+        ReplicaRoutingDataSource dataSource = routing(Map.of("replica-1", replica(0)), 1000);
+        dataSource.refreshReplicaLag();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_BeforeFirstLagCheck() throws SQLException {
+        ReplicaRoutingDataSource dataSource = routing(Map.of("replica-1", replica(0)), 1000);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ShouldRoundRobinHealthyReplicas() throws SQLException {
+        DataSource first = replica(10);
+        DataSource second = replica(20);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", first);
+        replicas.put("replica-2", second);
+        ReplicaRoutingDataSource dataSource = routing(replicas, 1000);
+
+        dataSource.refreshReplicaLag();
+        Connection a = dataSource.getConnection();
+        Connection b = dataSource.getConnection();
+
+        assertNotSame(a, b);
+        assertNotSame(primaryConnection, a);
+        assertNotSame(primaryConnection, b);
+    }
+
+    @Test
+    void getConnection_ShouldFallBackToPrimary_WhenReplicaLagsBehind() throws SQLException {
+        ReplicaRoutingDataSource dataSource = routing(Map.of("replica-1", replica(5000)), 1000);
+
+        dataSource.refreshReplicaLag();
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ShouldFallBackToPrimary_WhenReplicaIsUnavailable() throws SQLException {
+        DataSource broken = mock(DataSource.class);
+        when(broken.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaRoutingDataSource dataSource = routing(Map.of("replica-1", broken), 1000);
+
+        dataSource.refreshReplicaLag();
+
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    private ReplicaRoutingDataSource routing(Map<String, DataSource> replicas, long maxLagMillis) {
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replicas, maxLagMillis);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    private DataSource replica(long lagMillis) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(lagMillis);
+        return dataSource;
+    }
+}
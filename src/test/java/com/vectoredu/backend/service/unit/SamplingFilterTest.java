@@ -0,0 +1,58 @@
+package com.vectoredu.backend.service.unit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.spi.FilterReply;
+import com.vectoredu.backend.util.logging.SamplingFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SamplingFilterTest {
+
+    private static final String SAMPLED = "com.example.Noisy";
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private SamplingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SamplingFilter(now::get);
+        filter.setLoggers(SAMPLED + ", com.example.Other");
+        filter.setMaxPerSecond(2);
+    }
+
+    @Test
+    void decide_DropsEventsAboveLimitWithinSecond() {
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event(SAMPLED)));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event(SAMPLED)));
+        assertEquals(FilterReply.DENY, filter.decide(event(SAMPLED)));
+        assertEquals(1, filter.getDropped(SAMPLED));
+    }
+
+    @Test
+    void decide_ResetsLimitInNextSecond() {
+        filter.decide(event(SAMPLED));
+        filter.decide(event(SAMPLED));
+
+        now.addAndGet(1000);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(event(SAMPLED)));
+    }
+
+    @Test
+    void decide_IgnoresOtherLoggers() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(event("com.example.Quiet")));
+        }
+    }
+
+    private LoggingEvent event(String loggerName) {
+        return new LoggingEvent(getClass().getName(), loggerContext.getLogger(loggerName), Level.INFO, "msg", null, null);
+    }
+}
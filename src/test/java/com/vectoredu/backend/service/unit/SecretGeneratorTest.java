@@ -0,0 +1,56 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.util.BufferedSecretGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecretGeneratorTest {
+
+    private final BufferedSecretGenerator secretGenerator = new BufferedSecretGenerator();
+
+    @Test
+    void verificationCode_ShouldBeSixDigitsInRange() {
+        for (int i = 0; i < 10_000; i++) {
+            String code = secretGenerator.verificationCode();
+            assertEquals(6, code.length(), code);
+            int value = Integer.parseInt(code);
+            assertTrue(value >= 100_000 && value <= 999_999, code);
+        }
+    }
+
+    @Test
+    void urlToken_ShouldBeUrlSafe256Bits() {
+        String token = secretGenerator.urlToken();
+
+        assertEquals(43, token.length());
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+        assertEquals(32, Base64.getUrlDecoder().decode(token).length);
+    }
+
+    @Test
+    void urlToken_ShouldBeUniqueAcrossThreads() throws Exception {
+        int threads = 32;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> futures = executor.invokeAll(
+                    Collections.nCopies(threads, (Callable<List<String>>) () ->
+                            Stream.generate(secretGenerator::urlToken).limit(perThread).toList()));
+            Set<String> tokens = ConcurrentHashMap.newKeySet();
+            for (Future<List<String>> future : futures) {
+                tokens.addAll(future.get());
+            }
+            assertEquals(threads * perThread, tokens.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
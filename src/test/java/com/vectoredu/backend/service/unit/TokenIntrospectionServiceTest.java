@@ -0,0 +1,108 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.dto.response.TokenIntrospection;
+import com.vectoredu.backend.repository.UserRepository;
+import com.vectoredu.backend.service.JwtService;
+import com.vectoredu.backend.service.TokenIntrospectionService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class TokenIntrospectionServiceTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenIntrospectionService service;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        service = new TokenIntrospectionService(jwtService, userRepository, new SimpleMeterRegistry(), 100, 300000);
+    }
+
+    private Claims claims(String subject, long expiresInMillis) {
+        return Jwts.claims().subject(subject).expiration(new Date(System.currentTimeMillis() + expiresInMillis)).build();
+    }
+
+    @Test
+    void introspect_ShouldCheckOwnersWithOneQuery_AndKeepInputOrder() {
+        when(jwtService.extractAllClaims("a")).thenReturn(claims("1", 60000));
+        when(jwtService.extractAllClaims("b")).thenReturn(claims("2", 60000));
+        when(jwtService.extractAllClaims("expired")).thenThrow(new ExpiredJwtException(null, null, "expired"));
+        when(userRepository.findEnabledIds(anyCollection())).thenReturn(List.of(1L));
+
+        List<TokenIntrospection> results = service.introspect(Arrays.asList("a", "expired", "b", null));
+
+        assertEquals("1", results.get(0).getSubject());
+        assertTrue(results.get(0).isActive());
+        assertFalse(results.get(1).isActive());
+        // The owner of "b" is disabled or deleted
+        assertFalse(results.get(2).isActive());
+        assertFalse(results.get(3).isActive());
+        verify(userRepository, times(1)).findEnabledIds(anyCollection());
+        verify(userRepository, never()).findEnabledEmails(anyCollection());
+    }
+
+    @Test
+    void introspect_ShouldResolveLegacyEmailSubjects() {
+        when(jwtService.extractAllClaims("legacy")).thenReturn(claims("a@example.com", 60000));
+        when(userRepository.findEnabledEmails(anyCollection())).thenReturn(List.of("a@example.com"));
+
+        assertTrue(service.introspect(List.of("legacy")).get(0).isActive());
+        verify(userRepository, never()).findEnabledIds(anyCollection());
+    }
+
+    @Test
+    void introspect_ShouldServeRepeatedValidTokenFromCache() {
+        when(jwtService.extractAllClaims("a")).thenReturn(claims("1", 60000));
+        when(userRepository.findEnabledIds(anyCollection())).thenReturn(List.of(1L));
+
+        service.introspect(List.of("a"));
+        List<TokenIntrospection> results = service.introspect(List.of("a", "a"));
+
+        assertTrue(results.get(0).isActive());
+        assertTrue(results.get(1).isActive());
+        verify(jwtService, times(1)).extractAllClaims("a");
+        verify(userRepository, times(1)).findEnabledIds(anyCollection());
+    }
+
+    @Test
+    void introspect_ShouldNotCacheInactiveResults() {
+        when(jwtService.extractAllClaims("a")).thenReturn(claims("1", 60000));
+        when(userRepository.findEnabledIds(anyCollection())).thenReturn(List.of(), List.of(1L));
+
+        assertFalse(service.introspect(List.of("a")).get(0).isActive());
+        assertTrue(service.introspect(List.of("a")).get(0).isActive());
+    }
+
+    @Test
+    void introspect_ShouldNotServeCachedResultAfterExpiration() throws InterruptedException {
+        when(jwtService.extractAllClaims("a")).thenReturn(claims("1", 50));
+        when(userRepository.findEnabledIds(anyCollection())).thenReturn(List.of(1L));
+
+        service.introspect(List.of("a"));
+        Thread.sleep(100);
+        when(jwtService.extractAllClaims("a")).thenThrow(new ExpiredJwtException(null, null, "expired"));
+
+        assertFalse(service.introspect(List.of("a")).get(0).isActive());
+        verify(jwtService, times(2)).extractAllClaims(any());
+    }
+}
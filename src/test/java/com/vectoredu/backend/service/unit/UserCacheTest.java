@@ -0,0 +1,68 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.cache.UserCache;
+import com.vectoredu.backend.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private final UserCache userCache = new UserCache(new SimpleMeterRegistry(), 100, 60000);
+
+    @Test
+    void get_ShouldLoadOnceAndReturnIndependentCopies() {
+        AtomicInteger loads = new AtomicInteger();
+        User stored = User.builder().id(1L).email("email@example.com").firstName("Test").build();
+
+        User first = userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(stored);
+        }).orElseThrow();
+        first.setAccountLocked(true);
+        User second = userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(stored);
+        }).orElseThrow();
+
+        assertEquals(1, loads.get());
+        assertNotSame(first, second);
+        // Per-request changes do not leak into the cached entry
+        assertFalse(second.isAccountLocked());
+    }
+
+    @Test
+    void get_ShouldNotCacheMissingUser() {
+        AtomicInteger loads = new AtomicInteger();
+
+        userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void evict_ShouldForceReload() {
+        AtomicInteger loads = new AtomicInteger();
+        User stored = User.builder().id(1L).build();
+
+        userCache.get(1L, id -> Optional.of(stored));
+        userCache.evict(1L);
+        userCache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(stored);
+        });
+
+        assertEquals(1, loads.get());
+    }
+}
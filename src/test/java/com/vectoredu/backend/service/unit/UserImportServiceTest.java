@@ -0,0 +1,169 @@
+package com.vectoredu.backend.service.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vectoredu.backend.dto.response.UserImportReport;
+import com.vectoredu.backend.model.User;
+import com.vectoredu.backend.repository.UserRepository;
+import com.vectoredu.backend.service.AuthenticationService;
+import com.vectoredu.backend.service.UserImportService;
+import com.vectoredu.backend.util.exception.ValidationException;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class UserImportServiceTest {
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    private ValidatorFactory validatorFactory;
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        userImportService = new UserImportService(new ObjectMapper(), validatorFactory.getValidator(),
+                passwordEncoder, userRepository, authenticationService, Runnable::run);
+        ReflectionTestUtils.setField(userImportService, "batchSize", 2);
+        ReflectionTestUtils.setField(userImportService, "maxErrors", 10);
+
+        when(passwordEncoder.encode(any())).thenReturn("hash");
+        doAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setVerificationCode("123456");
+            user.setVerificationCodeExpiresAt(LocalDateTime.now().plusMinutes(15));
+            return null;
+        }).when(authenticationService).assignVerificationCode(any(User.class));
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        // By default every row passed to the insert is created
+        when(userRepository.insertAll(anyCollection())).thenAnswer(invocation -> emailsOf(invocation.getArgument(0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void testImportUsers_CreatesUsersInChunks() throws Exception {
+        UserImportReport report = userImportService.importUsers(json(
+                row("a@mail.ru"), row("b@mail.ru"), row("c@mail.ru")));
+
+        assertEquals(3, report.getProcessed());
+        assertEquals(3, report.getCreated());
+        assertEquals(0, report.getFailed());
+        verify(userRepository, times(2)).insertAll(anyCollection());
+        verify(authenticationService, times(3)).queueVerificationEmail(any(User.class));
+    }
+
+    @Test
+    void testImportUsers_CreatedUsersAreDisabledWithHashedPassword() throws Exception {
+        userImportService.importUsers(json(row("a@mail.ru")));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<User>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepository).insertAll(captor.capture());
+        User user = captor.getValue().iterator().next();
+        assertEquals("hash", user.getPassword());
+        assertEquals("123456", user.getVerificationCode());
+        assertNotNull(user.getVerificationCodeExpiresAt());
+        assertFalse(user.isEnabled());
+    }
+
+    @Test
+    void testImportUsers_ReportsInvalidAndDuplicateRows() throws Exception {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("taken@mail.ru"));
+
+        UserImportReport report = userImportService.importUsers(json(
+                row("bad-email"), row("taken@mail.ru"), row("a@mail.ru"), row("a@mail.ru")));
+
+        assertEquals(4, report.getProcessed());
+        assertEquals(1, report.getCreated());
+        assertEquals(3, report.getFailed());
+        assertEquals(List.of(1, 2, 4), report.getErrors().stream().map(UserImportReport.RowError::getRow).toList());
+        verify(authenticationService, times(1)).queueVerificationEmail(any(User.class));
+    }
+
+    @Test
+    void testImportUsers_ConcurrentlyRegisteredEmailIsNotNotified() throws Exception {
+        when(userRepository.insertAll(anyCollection())).thenReturn(Set.of("a@mail.ru"));
+
+        UserImportReport report = userImportService.importUsers(json(row("a@mail.ru"), row("b@mail.ru")));
+
+        assertEquals(1, report.getCreated());
+        assertEquals(1, report.getFailed());
+        assertEquals("b@mail.ru", report.getErrors().get(0).getEmail());
+        verify(authenticationService, times(1)).queueVerificationEmail(any(User.class));
+    }
+
+    @Test
+    void testImportUsers_ErrorListIsTruncated() throws Exception {
+        ReflectionTestUtils.setField(userImportService, "maxErrors", 1);
+
+        UserImportReport report = userImportService.importUsers(json(row("bad1"), row("bad2"), row("bad3")));
+
+        assertEquals(3, report.getFailed());
+        assertEquals(1, report.getErrors().size());
+        assertTrue(report.isErrorsTruncated());
+        verify(userRepository, never()).findExistingEmails(anyCollection());
+    }
+
+    @Test
+    void testImportUsers_NotAnArray() {
+        assertThrows(ValidationException.class,
+                () -> userImportService.importUsers(stream("{\"email\":\"a@mail.ru\"}")));
+    }
+
+    @Test
+    void testImportUsers_MalformedJsonKeepsCommittedChunks() {
+        assertThrows(ValidationException.class, () -> userImportService.importUsers(stream(
+                "[" + row("a@mail.ru") + "," + row("b@mail.ru") + ",{\"email\":")));
+
+        verify(userRepository, times(1)).insertAll(anyCollection());
+    }
+
+    private static Set<String> emailsOf(Collection<User> users) {
+        return users.stream().map(User::getEmail).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static String row(String email) {
+        return "{\"firstName\":\"Иван\",\"lastName\":\"Иванов\",\"email\":\"" + email + "\",\"password\":\"Password1!\"}";
+    }
+
+    private static InputStream json(String... rows) {
+        return stream("[" + String.join(",", rows) + "]");
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,117 @@
+package com.vectoredu.backend.service.unit;
+
+import com.vectoredu.backend.dto.request.RegisterUserDto;
+import com.vectoredu.backend.util.validators.EmailValidator;
+import com.vectoredu.backend.util.validators.PasswordValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidatorTest {
+
+    // The regular expressions the validators used to evaluate on every call
+    private static final Pattern EMAIL_PATTERN =
+            Pattern.compile("^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$");
+    private static final Pattern PASSWORD_PATTERN =
+            Pattern.compile("^(?=.*[A-Z])(?=.*[0-9]).{8,20}$");
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    private final EmailValidator emailValidator = new EmailValidator();
+    private final PasswordValidator passwordValidator = new PasswordValidator();
+
+    @BeforeAll
+    static void setUpValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "test@example.com", "first.last+tag@mail.example.org", "a&b*c@sub-domain.co.uk",
+            "invalid-email", "@example.com", "test@", "test@example", "test@example.c",
+            "test@example.abcdefgh", "test..dots@example.com", ".test@example.com", "test.@example.com",
+            "test@.example.com", "test@example..com", "test@example.com.", "test@exa_mple.com",
+            "test@example.c0m", "test@@example.com", "te st@example.com", "test@example.com\n", ""
+    })
+    void emailValidator_ShouldMatchRegex(String value) {
+        assertEquals(EMAIL_PATTERN.matcher(value).matches(), emailValidator.isValid(value, null), value);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Password123", "password123", "PASSWORDONE", "Pass1", "Password1234567890123",
+            "Passw0rd", "Password12345678901", "Pass\nword1", "Pässwörd1", "😀Password1",
+            "😀😀😀😀😀😀A1", ""
+    })
+    void passwordValidator_ShouldMatchRegex(String value) {
+        assertEquals(PASSWORD_PATTERN.matcher(value).matches(), passwordValidator.isValid(value, null), value);
+    }
+
+    @Test
+    void validators_ShouldMatchRegex_OnRandomInput() {
+        Random random = new Random(42);
+        String alphabet = "aZ09._+&*-@\n é";
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(25);
+            for (int j = 0; j < length; j++) {
+                value.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = value.toString();
+            assertEquals(EMAIL_PATTERN.matcher(input).matches(), emailValidator.isValid(input, null), input);
+            assertEquals(PASSWORD_PATTERN.matcher(input).matches(), passwordValidator.isValid(input, null), input);
+        }
+    }
+
+    @Test
+    void validators_ShouldRejectNullAndOversizedInput() {
+        assertFalse(emailValidator.isValid(null, null));
+        assertFalse(passwordValidator.isValid(null, null));
+        assertFalse(emailValidator.isValid("a".repeat(250) + "@example.com", null));
+    }
+
+    @Test
+    void registerUserDto_ShouldReportInvalidEmail() {
+        RegisterUserDto input = new RegisterUserDto("Test", "User", "invalid-email", "Password123");
+
+        Set<ConstraintViolation<RegisterUserDto>> violations = validator.validate(input);
+
+        assertEquals(1, violations.size());
+        assertEquals("Не верный формат email", violations.iterator().next().getMessage());
+    }
+
+    @Test
+    void registerUserDto_ShouldReportInvalidPasswordAndBlankNames() {
+        RegisterUserDto input = new RegisterUserDto(" ", null, "test@example.com", "password");
+
+        Set<ConstraintViolation<RegisterUserDto>> violations = validator.validate(input);
+
+        assertEquals(3, violations.size());
+    }
+
+    @Test
+    void registerUserDto_ShouldPass_WhenInputIsValid() {
+        RegisterUserDto input = new RegisterUserDto("Test", "User", "test@example.com", "Password123");
+
+        assertTrue(validator.validate(input).isEmpty());
+    }
+}